@@ -0,0 +1,180 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac BatchedRandom.java
+ * Execution:     java BatchedRandom
+ *
+ * Defines a random generator for simulation loops that draws a bounded
+ * int per step. It refills a buffer of BATCH random ints from an
+ * L64X128MixRandom in one tight loop, then hands them out one at a time,
+ * so a draw is an array read rather than a call into the generator.
+ *
+ * Bounded ints use Lemire's multiply-and-shift method: the 32 random bits
+ * times the bound is a 64-bit product whose high half is the result. The
+ * low half falls below 2^32 mod bound for a biased draw only, which is
+ * then redrawn, so the result is exactly uniform and the common case has
+ * no division.
+ *
+ * One generator serves one thread; it is not synchronized.
+ *---------------------------------------------------------------------------*/
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+public class BatchedRandom implements RandomGenerator {
+    private static final int BATCH = 256;             // ints per refill
+    private static final RandomGeneratorFactory<RandomGenerator> FACTORY =
+        RandomGeneratorFactory.of("L64X128MixRandom");
+    private static final AtomicLong SEEDS = new AtomicLong(); // for new seeds
+
+    private RandomGenerator source;                   // fills the buffer
+    private int[] buffer = new int[BATCH];            // random ints
+    private int next = BATCH;                         // next int to hand out
+
+    /**************************************************************************
+     * Class constructor method with a seed unique to this generator.
+     *************************************************************************/
+    public BatchedRandom() {
+        this(mix64(System.nanoTime(), SEEDS.getAndIncrement()));
+    }
+
+    /**************************************************************************
+     * Class constructor method with a given seed. The same seed gives the
+     * same sequence.
+     *************************************************************************/
+    public BatchedRandom(long seed) {
+        source = FACTORY.create(seed);
+    }
+
+    /**************************************************************************
+     * Method that returns output number index of a SplitMix64 generator
+     * seeded with seed. Gives independent seeds per block, task or size
+     * from one master seed.
+     *************************************************************************/
+    static long mix64(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**************************************************************************
+     * Method that returns 32 random bits.
+     *************************************************************************/
+    @Override
+    public int nextInt() {
+        if (next == BATCH) {
+            refill();
+        }
+        return buffer[next++];
+    }
+
+    /**************************************************************************
+     * Method that returns 64 random bits.
+     *************************************************************************/
+    @Override
+    public long nextLong() {
+        return ((long) nextInt() << 32) | (nextInt() & 0xFFFFFFFFL);
+    }
+
+    /**************************************************************************
+     * Method that returns a uniform int from 0 to bound - 1.
+     *************************************************************************/
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0)
+            throw new java.lang.IllegalArgumentException("bound must be positive");
+        long product = (nextInt() & 0xFFFFFFFFL) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (1L << 32) % bound;  // biased low halves
+            while (low < threshold) {
+                product = (nextInt() & 0xFFFFFFFFL) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**************************************************************************
+     * Method that fills count entries of a buffer, from offset, with
+     * uniform ints from 0 to bound - 1.
+     *************************************************************************/
+    public void nextInts(int[] out, int offset, int count, int bound) {
+        for (int i = offset; i < offset + count; i++) {
+            out[i] = nextInt(bound);
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that refills the buffer, two ints per long drawn.
+     *************************************************************************/
+    private void refill() {
+        RandomGenerator random = source;
+        int[] ints = buffer;
+        for (int i = 0; i < BATCH; i += 2) {
+            long bits = random.nextLong();
+            ints[i] = (int) bits;
+            ints[i + 1] = (int) (bits >>> 32);
+        }
+        next = 0;
+    }
+
+    public static void main(String[] args) {
+        // Test that a seed fixes the sequence
+        StdOut.print("Test seed: ");
+        BatchedRandom a = new BatchedRandom(17L);
+        BatchedRandom b = new BatchedRandom(17L);
+        boolean same = true;
+        for (int i = 0; i < 1000; i++) {
+            same &= a.nextInt(1000 + i) == b.nextInt(1000 + i);
+        }
+        if (same) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test bounded draws with a chi-square on a bound that divides
+        // 2^32 unevenly
+        StdOut.print("Test uniform: ");
+        int bound = 3 << 28;                    // worst case for bias
+        int bins = 6;
+        long[] counts = new long[bins];
+        int draws = 600000;
+        for (int i = 0; i < draws; i++) {
+            int r = a.nextInt(bound);
+            if (r < 0 || r >= bound) {
+                counts[0] = -draws;
+            }
+            counts[(int) ((long) r * bins / bound)]++;
+        }
+        double chi = 0.0;
+        double expected = (double) draws / bins;
+        for (long c : counts) {
+            chi += (c - expected) * (c - expected) / expected;
+        }
+        if (chi < 20.5) {                       // p = 0.001, 5 dof
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test a bulk fill
+        StdOut.print("Test nextInts: ");
+        int[] out = new int[100];
+        java.util.Arrays.fill(out, -1);
+        a.nextInts(out, 10, 80, 7);
+        boolean bounded = out[9] == -1 && out[90] == -1;
+        for (int i = 10; i < 90; i++) {
+            bounded &= out[i] >= 0 && out[i] < 7;
+        }
+        if (bounded) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}
@@ -0,0 +1,687 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac Benchmarks.java
+ * Execution:     java Benchmarks [filter] [-forks F] [-warmup W]
+ *                                [-iterations I] [-time MILLISECONDS]
+ *
+ * Measures the time and memory each operation of the main classes costs,
+ * so regressions show up and alternative engines can be compared:
+ *
+ *   percolation.open       opening every site, per site, across N and
+ *                          union-find engines
+ *   percolation.isFull     random isFull queries on a grid opened at 0.6
+ *   percolation.percolates percolates queries on GRIDS grids opened at
+ *                          0.55 to 0.62, taken in turn so the JIT cannot
+ *                          hoist the query out of the loop
+ *   stats.trial            one PercolationStats trial, on a system and
+ *                          generator built before timing starts
+ *   deque.*                add and remove mixes and iteration on a
+ *                          Deque, and the same on a BlockDeque; bulk
+ *                          addAll and drainTo, and appendAll splices
+ *   intdeque.*             queue mix and iteration on an IntDeque
+ *   wsdeque.*              owner push and pop on a WorkStealingDeque,
+ *                          against a Deque under a lock, and steals
+ *   queue.*                RandomizedQueue enqueue and dequeue, and
+ *                          iterator construction
+ *
+ * Each benchmark runs alone in F fresh JVMs (3 by default), started with
+ * this JVM's options, as JMH forks do. In a JVM that had run other
+ * benchmarks first, Percolation's calls into UnionFind would have seen
+ * several engines and been compiled as megamorphic calls, so a score
+ * would depend on what ran before it. A fork sets up only its benchmark.
+ *
+ * In each fork the benchmark runs W warmup iterations, then I measured
+ * iterations of about the given time each, calling its invocation
+ * repeatedly. Reported are the mean over the forks of the time per
+ * operation, with a 95% confidence error and the standard deviation
+ * across the forks' means, and the bytes allocated per operation by all
+ * threads, from com.sun.management.ThreadMXBean. With -forks 0 every
+ * benchmark runs in this JVM instead, and the error is over iterations.
+ * Every invocation returns a checksum that goes to a volatile sink, so
+ * the JIT cannot remove the work as dead code.
+ *
+ * Only benchmarks whose name contains the filter run.
+ *---------------------------------------------------------------------------*/
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+public class Benchmarks {
+    private static final int QUERIES = 1 << 16;   // queries per invocation
+    private static final int MIX = 1 << 10;       // items per deque mix
+    private static final int GRIDS = 8;           // grids for percolates
+
+    private static volatile long sink;            // consumes checksums
+
+    private List<Case> cases = new ArrayList<Case>(); // benchmarks to run
+    private String filter;                        // part of the names to run
+    private String only;                          // "name param", or null
+    private boolean listing;                      // register without setup
+
+    /**************************************************************************
+     * A benchmark: an invocation that performs a fixed number of operations
+     * and returns a checksum of its results.
+     *************************************************************************/
+    private static class Case {
+        private String name;                      // what is measured
+        private String param;                     // size or engine
+        private long operations;                  // operations per invocation
+        private LongSupplier invocation;          // the measured work
+
+        public Case(String name, String param, long operations,
+                    LongSupplier invocation) {
+            this.name = name;
+            this.param = param;
+            this.operations = operations;
+            this.invocation = invocation;
+        }
+    }
+
+    /**************************************************************************
+     * Class constructor method which registers every benchmark whose name
+     * contains filter. Setup work, such as filling grids, happens here and
+     * is not measured.
+     *************************************************************************/
+    public Benchmarks(String filter) {
+        this(filter, null, false);
+    }
+
+    /**************************************************************************
+     * Class constructor method which registers only the benchmark "name
+     * param" given by only, if not null. If listing, benchmarks are
+     * registered without an invocation and nothing is set up, so that they
+     * can be run in forks.
+     *************************************************************************/
+    private Benchmarks(String filter, String only, boolean listing) {
+        this.filter = filter;
+        this.only = only;
+        this.listing = listing;
+        for (int N : new int[] { 64, 256, 1024 }) {
+            addOpen("N=" + N, N, RankedUnionFind::new);
+        }
+        addOpen("splitting N=1024", 1024, SplittingUnionFind::new);
+        addOpen("off-heap N=1024", 1024, OffHeapUnionFind::new);
+        for (int N : new int[] { 64, 1024 }) {
+            addQueries(N);
+        }
+        for (int N : new int[] { 64, 256 }) {
+            addTrials(N);
+        }
+        addDeque();
+        addBlockDeque();
+        addIntDeque();
+        addWorkStealingDeque();
+        addQueue();
+    }
+
+    /**************************************************************************
+     * Helper method that registers a benchmark if it is wanted.
+     *************************************************************************/
+    private void add(String name, String param, long operations,
+                     LongSupplier invocation) {
+        if (wanted(name, param)) {
+            cases.add(new Case(name, param, operations, invocation));
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that says if a benchmark should be set up: its name
+     * contains filter, and it is the only one asked for, if any. When
+     * listing, it registers the benchmark without setup and says no.
+     *************************************************************************/
+    private boolean wanted(String name, String param) {
+        if (!name.contains(filter)
+                || (only != null && !only.equals(name + " " + param))) {
+            return false;
+        }
+        if (listing) {
+            cases.add(new Case(name, param, 0, null));
+            return false;
+        }
+        return true;
+    }
+
+    /**************************************************************************
+     * Helper method that registers opening every site of an N-by-N grid in
+     * random order, resetting it first.
+     *************************************************************************/
+    private void addOpen(String param, int N,
+                         LongFunction<UnionFind> engine) {
+        if (!wanted("percolation.open", param)) {
+            return;
+        }
+        Percolation grid = new Percolation(N, engine);
+        long[] order = permutation((long) N * N);
+        cases.add(new Case("percolation.open", param, order.length, () -> {
+            grid.reset();
+            for (long site : order) {
+                grid.open(site);
+            }
+            return grid.numberOfOpenSites();
+        }));
+    }
+
+    /**************************************************************************
+     * Helper method that registers isFull and percolates queries on N-by-N
+     * grids with each site open with probability about 0.6.
+     *************************************************************************/
+    private void addQueries(int N) {
+        if (wanted("percolation.isFull", "N=" + N)) {
+            addIsFull(N);
+        }
+        if (wanted("percolation.percolates", "N=" + N)) {
+            addPercolates(N);
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that registers isFull queries at random sites of an
+     * N-by-N grid opened at 0.6.
+     *************************************************************************/
+    private void addIsFull(int N) {
+        Percolation grid = new Percolation(N);
+        grid.openRandom(0.6, 1L);
+        int[] rows = new int[QUERIES];
+        int[] columns = new int[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            rows[q] = 1 + StdRandom.uniform(N);
+            columns[q] = 1 + StdRandom.uniform(N);
+        }
+        cases.add(new Case("percolation.isFull", "N=" + N, QUERIES, () -> {
+            long full = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                if (grid.isFull(rows[q], columns[q])) {
+                    full++;
+                }
+            }
+            return full;
+        }));
+    }
+
+    /**************************************************************************
+     * Helper method that registers percolates queries on GRIDS N-by-N grids
+     * opened at 0.55 to 0.62.
+     *************************************************************************/
+    private void addPercolates(int N) {
+        Percolation[] grids = new Percolation[GRIDS];
+        for (int g = 0; g < GRIDS; g++) {
+            grids[g] = new Percolation(N);
+            grids[g].openRandom(0.55 + 0.01 * g, g);
+        }
+        cases.add(new Case("percolation.percolates", "N=" + N, QUERIES,
+                           () -> {
+            long percolates = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                if (grids[q % GRIDS].percolates()) {
+                    percolates++;
+                }
+            }
+            return percolates;
+        }));
+    }
+
+    /**************************************************************************
+     * Helper method that registers PercolationStats trials on an N-by-N
+     * grid. The worker and its generator are built here, once, so only the
+     * trial itself is timed: reset, then random opens until percolation.
+     *************************************************************************/
+    private void addTrials(int N) {
+        if (!wanted("stats.trial", "N=" + N)) {
+            return;
+        }
+        PercolationStats.Worker worker =
+            new PercolationStats.Worker(new Percolation(N));
+        BatchedRandom random = new BatchedRandom(1L);
+        cases.add(new Case("stats.trial", "N=" + N, 1,
+                           () -> worker.trial(random)));
+    }
+
+    /**************************************************************************
+     * Helper method that registers Deque mixes of MIX items: used as a queue,
+     * as a stack, and with each end picked at random; then MIX items moved
+     * in by addAll and out by drainTo, and MIX items spliced back and forth
+     * between two Deques.
+     *************************************************************************/
+    private void addDeque() {
+        Deque<Integer> deque = new Deque<Integer>();
+        boolean[] front = new boolean[2 * MIX];
+        for (int k = 0; k < front.length; k++) {
+            front[k] = StdRandom.bernoulli(0.5);
+        }
+        add("deque.queue", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                deque.addLast(k);
+            }
+            long sum = 0;
+            for (int k = 0; k < MIX; k++) {
+                sum += deque.removeFirst();
+            }
+            return sum;
+        });
+        add("deque.stack", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                deque.addFirst(k);
+            }
+            long sum = 0;
+            for (int k = 0; k < MIX; k++) {
+                sum += deque.removeFirst();
+            }
+            return sum;
+        });
+        add("deque.random", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                if (front[k]) {
+                    deque.addFirst(k);
+                } else {
+                    deque.addLast(k);
+                }
+            }
+            long sum = 0;
+            for (int k = MIX; k < 2 * MIX; k++) {
+                sum += front[k] ? deque.removeFirst() : deque.removeLast();
+            }
+            return sum;
+        });
+        List<Integer> batch = new ArrayList<Integer>();
+        for (int k = 0; k < MIX; k++) {
+            batch.add(k);
+        }
+        List<Integer> drained = new ArrayList<Integer>(MIX);
+        add("deque.bulk", "items=" + MIX, 2 * MIX, () -> {
+            deque.addAll(batch);
+            drained.clear();
+            long sum = deque.drainTo(drained, MIX);
+            for (int item : drained) {
+                sum += item;
+            }
+            return sum;
+        });
+        Deque<Integer> other = new Deque<Integer>();
+        other.addAll(batch);
+        add("deque.splice", "items=" + MIX, 2, () -> {
+            deque.appendAll(other);
+            other.appendAll(deque);
+            return other.size();
+        });
+        Deque<Integer> full = new Deque<Integer>();
+        for (int k = 0; k < QUERIES; k++) {
+            full.addLast(k);
+        }
+        add("deque.iterate", "items=" + QUERIES, QUERIES, () -> {
+            long sum = 0;
+            for (int item : full) {
+                sum += item;
+            }
+            return sum;
+        });
+    }
+
+    /**************************************************************************
+     * Helper method that registers the Deque benchmarks on a BlockDeque.
+     *************************************************************************/
+    private void addBlockDeque() {
+        BlockDeque<Integer> deque = new BlockDeque<Integer>();
+        boolean[] front = new boolean[2 * MIX];
+        for (int k = 0; k < front.length; k++) {
+            front[k] = StdRandom.bernoulli(0.5);
+        }
+        add("blockdeque.queue", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                deque.addLast(k);
+            }
+            long sum = 0;
+            for (int k = 0; k < MIX; k++) {
+                sum += deque.removeFirst();
+            }
+            return sum;
+        });
+        add("blockdeque.random", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                if (front[k]) {
+                    deque.addFirst(k);
+                } else {
+                    deque.addLast(k);
+                }
+            }
+            long sum = 0;
+            for (int k = MIX; k < 2 * MIX; k++) {
+                sum += front[k] ? deque.removeFirst() : deque.removeLast();
+            }
+            return sum;
+        });
+        BlockDeque<Integer> full = new BlockDeque<Integer>();
+        for (int k = 0; k < QUERIES; k++) {
+            full.addLast(k);
+        }
+        add("blockdeque.iterate", "items=" + QUERIES, QUERIES, () -> {
+            long sum = 0;
+            for (int item : full) {
+                sum += item;
+            }
+            return sum;
+        });
+    }
+
+    /**************************************************************************
+     * Helper method that registers the queue mix and iteration on an
+     * IntDeque, without boxing.
+     *************************************************************************/
+    private void addIntDeque() {
+        IntDeque deque = new IntDeque();
+        add("intdeque.queue", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                deque.addLast(k);
+            }
+            long sum = 0;
+            for (int k = 0; k < MIX; k++) {
+                sum += deque.removeFirst();
+            }
+            return sum;
+        });
+        IntDeque full = new IntDeque();
+        for (int k = 0; k < QUERIES; k++) {
+            full.addLast(k);
+        }
+        add("intdeque.iterate", "items=" + QUERIES, QUERIES, () -> {
+            long sum = 0;
+            java.util.PrimitiveIterator.OfInt items = full.iterator();
+            while (items.hasNext()) {
+                sum += items.nextInt();
+            }
+            return sum;
+        });
+    }
+
+    /**************************************************************************
+     * Helper method that registers WorkStealingDeque benchmarks, one thread:
+     * MIX owner pushes then MIX pops, the same on a Deque locked for each
+     * operation, and MIX pushes then MIX steals.
+     *************************************************************************/
+    private void addWorkStealingDeque() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<Integer>();
+        add("wsdeque.stack", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                deque.addLast(k);
+            }
+            long sum = 0;
+            for (int k = 0; k < MIX; k++) {
+                sum += deque.removeLast();
+            }
+            return sum;
+        });
+        Deque<Integer> locked = new Deque<Integer>();
+        add("wsdeque.lockedStack", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                synchronized (locked) {
+                    locked.addLast(k);
+                }
+            }
+            long sum = 0;
+            for (int k = 0; k < MIX; k++) {
+                synchronized (locked) {
+                    sum += locked.removeLast();
+                }
+            }
+            return sum;
+        });
+        add("wsdeque.steal", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                deque.addLast(k);
+            }
+            long sum = 0;
+            for (int k = 0; k < MIX; k++) {
+                sum += deque.stealFirst();
+            }
+            return sum;
+        });
+    }
+
+    /**************************************************************************
+     * Helper method that registers RandomizedQueue benchmarks: MIX enqueues
+     * then MIX dequeues, and iterators over MIX items, each consumed once.
+     *************************************************************************/
+    private void addQueue() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>();
+        add("queue.enqueueDequeue", "items=" + MIX, 2 * MIX, () -> {
+            for (int k = 0; k < MIX; k++) {
+                queue.enqueue(k);
+            }
+            long sum = 0;
+            for (int k = 0; k < MIX; k++) {
+                sum += queue.dequeue();
+            }
+            return sum;
+        });
+        RandomizedQueue<Integer> full = new RandomizedQueue<Integer>();
+        for (int k = 0; k < MIX; k++) {
+            full.enqueue(k);
+        }
+        add("queue.iterator", "items=" + MIX, 1, () -> {
+            Iterator<Integer> items = full.iterator();
+            return items.next();
+        });
+    }
+
+    /**************************************************************************
+     * Helper method that returns 0 through n - 1 in random order.
+     *************************************************************************/
+    private static long[] permutation(long n) {
+        long[] order = new long[(int) n];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int r = StdRandom.uniform(i + 1);
+            long swap = order[r];
+            order[r] = order[i];
+            order[i] = swap;
+        }
+        return order;
+    }
+
+    /**************************************************************************
+     * Method that runs every registered benchmark in this JVM, one after
+     * another, and prints one line each, with the error over iterations.
+     *************************************************************************/
+    public void run(int warmup, int iterations, long millis) {
+        StdOut.printf("%-24s %-18s %12s    %10s  %-6s %10s\n", "Benchmark",
+                      "Param", "Score", "Error", "Units", "B/op");
+        for (Case c : cases) {
+            double[] nanos = new double[iterations];
+            double bytes = 0.0;
+            for (int i = 0; i < warmup + iterations; i++) {
+                double[] result = measure(c, millis);
+                if (i >= warmup) {
+                    nanos[i - warmup] = result[0];
+                    bytes += result[1] / iterations;
+                }
+            }
+            double error = (iterations > 1)
+                ? 1.96 * StdStats.stddev(nanos) / Math.sqrt(iterations)
+                : Double.NaN;
+            StdOut.printf("%-24s %-18s %12.3f +- %10.3f  %-6s %10.1f\n",
+                          c.name, c.param, StdStats.mean(nanos), error,
+                          "ns/op", bytes);
+        }
+    }
+
+    /**************************************************************************
+     * Method that runs each benchmark whose name contains filter in forks
+     * fresh JVMs of its own, and prints one line each, with the error and
+     * standard deviation across the forks' mean times.
+     *************************************************************************/
+    public static void runForked(String filter, int forks, int warmup,
+                                 int iterations, long millis) {
+        StdOut.printf("%-24s %-18s %5s %12s    %10s %10s  %-6s %10s\n",
+                      "Benchmark", "Param", "Forks", "Score", "Error",
+                      "Fork sd", "Units", "B/op");
+        for (Case c : new Benchmarks(filter, null, true).cases) {
+            double[] scores = new double[forks];
+            double bytes = 0.0;
+            for (int f = 0; f < forks; f++) {
+                double[] result = fork(c, warmup, iterations, millis);
+                scores[f] = result[0];
+                bytes += result[1] / forks;
+            }
+            double sd = (forks > 1) ? StdStats.stddev(scores) : Double.NaN;
+            StdOut.printf("%-24s %-18s %5d %12.3f +- %10.3f %10.3f  %-6s "
+                          + "%10.1f\n", c.name, c.param, forks,
+                          StdStats.mean(scores), 1.96 * sd / Math.sqrt(forks),
+                          sd, "ns/op", bytes);
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that runs one benchmark in a new JVM, with this JVM's
+     * options and class path, and returns its mean nanoseconds and bytes
+     * per operation, which the fork prints as its last line.
+     *************************************************************************/
+    private static double[] fork(Case c, int warmup, int iterations,
+                                 long millis) {
+        List<String> command = new ArrayList<String>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(
+            ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("Benchmarks");
+        command.add("-fork");
+        command.add(c.name);
+        command.add(c.param);
+        command.add("-warmup");
+        command.add(Integer.toString(warmup));
+        command.add("-iterations");
+        command.add(Integer.toString(iterations));
+        command.add("-time");
+        command.add(Long.toString(millis));
+        try {
+            Process child = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            String last = null;
+            try (BufferedReader out = new BufferedReader(
+                     new InputStreamReader(child.getInputStream()))) {
+                for (String line; (line = out.readLine()) != null; ) {
+                    last = line;
+                }
+            }
+            if (child.waitFor() != 0 || last == null)
+                throw new java.lang.IllegalStateException(
+                    "fork for " + c.name + " " + c.param + " failed");
+            String[] fields = last.trim().split(" ");
+            return new double[] { Double.parseDouble(fields[0]),
+                                  Double.parseDouble(fields[1]) };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.lang.IllegalStateException(e);
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that runs the one registered benchmark, in a fork, and
+     * prints its mean nanoseconds and bytes per operation on one line.
+     *************************************************************************/
+    private void runFork(int warmup, int iterations, long millis) {
+        if (cases.size() != 1)
+            throw new java.lang.IllegalArgumentException(
+                "no benchmark " + only);
+        Case c = cases.get(0);
+        double nanos = 0.0;
+        double bytes = 0.0;
+        for (int i = 0; i < warmup + iterations; i++) {
+            double[] result = measure(c, millis);
+            if (i >= warmup) {
+                nanos += result[0] / iterations;
+                bytes += result[1] / iterations;
+            }
+        }
+        StdOut.println(nanos + " " + bytes);
+    }
+
+    /**************************************************************************
+     * Helper method that calls a benchmark until millis have passed and
+     * returns the nanoseconds and bytes allocated per operation.
+     *************************************************************************/
+    private static double[] measure(Case c, long millis) {
+        long deadline = millis * 1000000L;
+        long operations = 0;
+        long checksum = 0;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            checksum += c.invocation.getAsLong();
+            operations += c.operations;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < deadline);
+        allocated = allocatedBytes() - allocated;
+        sink = checksum;
+        return new double[] { (double) elapsed / operations,
+                              (double) allocated / operations };
+    }
+
+    /**************************************************************************
+     * Helper method that returns the bytes allocated so far by all live
+     * threads, or 0 if the JVM cannot tell.
+     *************************************************************************/
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean =
+            ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) bean;
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(bean.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    public static void main(String[] args) {
+        String filter = "";
+        String only = null;
+        int forks = 3;
+        int warmup = 3;
+        int iterations = 5;
+        long millis = 1000;
+        for (int k = 0; k < args.length; k++) {
+            if (args[k].equals("-fork")) {         // run by runForked
+                filter = args[++k];
+                only = filter + " " + args[++k];
+            } else if (args[k].equals("-forks")) {
+                forks = Integer.parseInt(args[++k]);
+            } else if (args[k].equals("-warmup")) {
+                warmup = Integer.parseInt(args[++k]);
+            } else if (args[k].equals("-iterations")) {
+                iterations = Integer.parseInt(args[++k]);
+            } else if (args[k].equals("-time")) {
+                millis = Long.parseLong(args[++k]);
+            } else {
+                filter = args[k];
+            }
+        }
+        if (only != null) {
+            new Benchmarks(filter, only, false).runFork(warmup, iterations,
+                                                        millis);
+        } else if (forks > 0) {
+            runForked(filter, forks, warmup, iterations, millis);
+        } else {
+            new Benchmarks(filter).run(warmup, iterations, millis);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac BlockDeque.java
+ * Execution:     java BlockDeque
+ *
+ * Defines a Deque type with the same operations as Deque, storing items
+ * in fixed arrays of BLOCK items linked at the ends instead of one node
+ * per item.
+ *
+ * The items run from first.items[head] through last.items[tail - 1].
+ * Adding past either end links one new block, and emptying an end block
+ * unlinks it, so every operation stays constant worst-case time and the
+ * space stays proportional to the number of items. The last block
+ * unlinked is kept as a spare, so adds and removes alternating across a
+ * block boundary do not allocate each time.
+ *
+ * Per item this costs one array slot instead of a 32-byte node, and
+ * iteration walks arrays rather than chasing a pointer per item.
+ *---------------------------------------------------------------------------*/
+
+import java.util.Iterator;
+
+public class BlockDeque<Item> implements Iterable<Item> {
+    private static final int BLOCK = 64; // items per block
+
+    private Block first;                 // block holding the first item
+    private Block last;                  // block holding the last item
+    private int head;                    // index of first item in first
+    private int tail;                    // index after last item in last
+    private int size;                    // number of items
+    private Block spare;                 // unlinked empty block, or null
+
+    private class Block {
+        private Item[] items = newItems();
+        private Block next;
+        private Block previous;
+    }
+
+    /**************************************************************************
+     * Method for default BlockDeque construction. Starts with one block,
+     * with the ends in its middle so either can grow.
+     *************************************************************************/
+    public BlockDeque() {
+        first = new Block();
+        last = first;
+        head = BLOCK / 2;
+        tail = BLOCK / 2;
+        size = 0;
+    }
+
+    /**************************************************************************
+     * Method that says if the BlockDeque is empty.
+     *************************************************************************/
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    /**************************************************************************
+     * Method that returns size.
+     *************************************************************************/
+    public int size() {
+        return size;
+    }
+
+    /**************************************************************************
+     * Method that adds an item to the front of the BlockDeque.
+     *************************************************************************/
+    public void addFirst(Item item) {
+        if (item == null) {
+            throw new java.lang.NullPointerException();
+        }
+        if (head == 0) {
+            Block block = newBlock();
+            block.next = first;
+            first.previous = block;
+            first = block;
+            head = BLOCK;
+        }
+        first.items[--head] = item;
+        size++;
+    }
+
+    /**************************************************************************
+     * Method that adds an item to the back of the BlockDeque.
+     *************************************************************************/
+    public void addLast(Item item) {
+        if (item == null) {
+            throw new java.lang.NullPointerException();
+        }
+        if (tail == BLOCK) {
+            Block block = newBlock();
+            block.previous = last;
+            last.next = block;
+            last = block;
+            tail = 0;
+        }
+        last.items[tail++] = item;
+        size++;
+    }
+
+    /**************************************************************************
+     * Method that removes the item at the front of the BlockDeque.
+     *************************************************************************/
+    public Item removeFirst() {
+        if (this.isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+        Item item = first.items[head];
+        first.items[head++] = null;    // no loitering
+        size--;
+        if (head == BLOCK && first != last) {
+            Block empty = first;
+            first = first.next;
+            first.previous = null;
+            head = 0;
+            recycle(empty);
+        }
+        if (size == 0) {
+            recenter();
+        }
+        return item;
+    }
+
+    /**************************************************************************
+     * Method that removes the item at the back of the BlockDeque.
+     *************************************************************************/
+    public Item removeLast() {
+        if (this.isEmpty()) {
+            throw new java.util.NoSuchElementException();
+        }
+        Item item = last.items[--tail];
+        last.items[tail] = null;       // no loitering
+        size--;
+        if (tail == 0 && first != last) {
+            Block empty = last;
+            last = last.previous;
+            last.next = null;
+            tail = BLOCK;
+            recycle(empty);
+        }
+        if (size == 0) {
+            recenter();
+        }
+        return item;
+    }
+
+    /**************************************************************************
+     * Method that returns an iterator on the BlockDeque, front to back.
+     *************************************************************************/
+    public Iterator<Item> iterator() {
+        return new BlockDequeIterator();
+    }
+
+    /**************************************************************************
+     * Helper method that returns the spare block, or a new one.
+     *************************************************************************/
+    private Block newBlock() {
+        Block block = spare;
+        if (block == null) {
+            return new Block();
+        }
+        spare = null;
+        return block;
+    }
+
+    /**************************************************************************
+     * Helper method that returns an array for BLOCK items. Casts from array
+     * of Object to array of Item, which is safe as no array leaves the
+     * BlockDeque.
+     *************************************************************************/
+    @SuppressWarnings("unchecked")
+    private Item[] newItems() {
+        return (Item[]) new Object[BLOCK];
+    }
+
+    /**************************************************************************
+     * Helper method that keeps an unlinked empty block as the spare.
+     *************************************************************************/
+    private void recycle(Block block) {
+        block.next = null;
+        block.previous = null;
+        spare = block;
+    }
+
+    /**************************************************************************
+     * Helper method that moves both ends of an empty deque to the middle
+     * of its only block.
+     *************************************************************************/
+    private void recenter() {
+        head = BLOCK / 2;
+        tail = BLOCK / 2;
+    }
+
+    /**************************************************************************
+     * Inner class for iterating over the BlockDeque.
+     *************************************************************************/
+    private class BlockDequeIterator implements Iterator<Item> {
+        private Block block = first;   // block of the next item
+        private int index = head;      // index of the next item in block
+        private int remaining = size;  // items not yet returned
+
+        /**********************************************************************
+         * Method that returns the next item and advances, moving to the
+         * next block at the end of one.
+         *********************************************************************/
+        public Item next() {
+            if (remaining == 0) {
+                throw new java.util.NoSuchElementException();
+            }
+            if (index == BLOCK) {
+                block = block.next;
+                index = 0;
+            }
+            remaining--;
+            return block.items[index++];
+        }
+
+        /**********************************************************************
+         * Method that says whether or not there exists a next item.
+         *********************************************************************/
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        public void remove() {
+            throw new java.lang.UnsupportedOperationException();
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test the empty deque
+        StdOut.print("Test empty BlockDeque: ");
+        BlockDeque<String> empty = new BlockDeque<String>();
+        boolean threw = false;
+        try {
+            empty.removeLast();
+        } catch (java.util.NoSuchElementException e) {
+            threw = true;
+        }
+        if (empty.isEmpty() && empty.size() == 0 && threw
+                && !empty.iterator().hasNext()) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test null items
+        StdOut.print("Test add null item: ");
+        try {
+            empty.addFirst(null);
+            StdOut.println("FAILED");
+        } catch (java.lang.NullPointerException e) {
+            StdOut.println("passed: exception caught");
+        }
+
+        // Test order across many blocks
+        StdOut.print("Test order across blocks: ");
+        BlockDeque<Integer> deque = new BlockDeque<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i - 1);
+        }
+        int expected = -1000;
+        boolean ordered = deque.size() == 2000;
+        for (int item : deque) {
+            ordered &= item == expected++;
+        }
+        for (int i = 0; i < 1000; i++) {
+            ordered &= deque.removeFirst() == -1000 + i;
+            ordered &= deque.removeLast() == 999 - i;
+        }
+        if (ordered && deque.isEmpty()) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test random operations against java.util.ArrayDeque
+        StdOut.print("Test against ArrayDeque: ");
+        java.util.ArrayDeque<Integer> model = new java.util.ArrayDeque<Integer>();
+        boolean same = true;
+        for (int step = 0; step < 200000 && same; step++) {
+            int op = StdRandom.uniform(4);
+            if (op == 0) {
+                deque.addFirst(step);
+                model.addFirst(step);
+            } else if (op == 1) {
+                deque.addLast(step);
+                model.addLast(step);
+            } else if (model.isEmpty()) {
+                same = deque.isEmpty();
+            } else if (op == 2) {
+                same = deque.removeFirst().equals(model.removeFirst());
+            } else {
+                same = deque.removeLast().equals(model.removeLast());
+            }
+            same &= deque.size() == model.size();
+        }
+        Iterator<Integer> items = deque.iterator();
+        for (int item : model) {
+            same &= items.hasNext() && items.next() == item;
+        }
+        if (same && !items.hasNext()) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac BondPercolation.java
+ * Execution:     java BondPercolation
+ *
+ * Defines bond percolation on any Lattice: every site is present, and
+ * the bonds between neighboring sites are opened one by one. Uses the
+ * same union-find engines and top/bottom flags as Percolation.
+ *
+ * Bond b joins site b / F to its neighbor in forward direction b % F,
+ * where F = directions() / 2. Indices whose neighbor is past the edge
+ * name no bond, and opening them does nothing.
+ *---------------------------------------------------------------------------*/
+
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+public class BondPercolation implements PercolationModel {
+    private static final int TOP    = 1; // component touches the top
+    private static final int BOTTOM = 2; // component touches the bottom
+
+    private Lattice lattice;       // sites and their neighbors
+    private int forward;           // forward directions per site
+    private UnionFind grid;        // components of sites
+    private SiteSet openBonds;     // open/blocked bonds, one bit each
+    private long indices;          // sites times forward directions
+    private long bonds;            // indices that name a bond
+    private long openCount;        // number of open bonds
+    private boolean percolates;    // some component touches both ends
+
+    /**************************************************************************
+     * Class constructor method with the default engine on the heap.
+     *************************************************************************/
+    public BondPercolation(Lattice lattice) {
+        this(lattice, RankedUnionFind::new, HeapSiteSet::new);
+    }
+
+    /**************************************************************************
+     * Class constructor method which sets all bonds to blocked.
+     * Counts the bonds that exist, once, so thresholds are fractions of
+     * real bonds. A lattice with no bonds, such as the 1-by-1 square, is
+     * rejected: no order of bonds could make it percolate, and its
+     * threshold would be 0 of 0 bonds.
+     *************************************************************************/
+    public BondPercolation(Lattice lattice, LongFunction<UnionFind> engine,
+                           LongFunction<SiteSet> store) {
+        this.lattice = lattice;
+        forward   = lattice.directions() / 2;
+        indices   = lattice.sites() * forward;
+        grid      = engine.apply(lattice.sites());
+        openBonds = store.apply(indices);
+        for (long b = 0; b < indices; b++) {
+            if (lattice.neighbor(b / forward, (int) (b % forward)) >= 0) {
+                bonds++;
+            }
+        }
+        if (bonds == 0)
+            throw new java.lang.IllegalArgumentException(
+                "lattice has no bonds");
+    }
+
+    /**************************************************************************
+     * Method that opens bond b and joins its two sites. Does nothing if
+     * the bond is open already or b names no bond.
+     *************************************************************************/
+    public void open(long b) {
+        if ((b < 0) || (b >= indices))
+            throw new java.lang.IndexOutOfBoundsException("index out of bounds");
+        openBond(b);
+    }
+
+    /**************************************************************************
+     * Method that says if bond b is open.
+     *************************************************************************/
+    public boolean isOpen(long b) {
+        if ((b < 0) || (b >= indices))
+            throw new java.lang.IndexOutOfBoundsException("index out of bounds");
+        return openBonds.contains(b);
+    }
+
+    /**************************************************************************
+     * Method that says if a site is connected to the top through open bonds.
+     * Sites on the top boundary are full by themselves.
+     *************************************************************************/
+    public boolean isFull(long site) {
+        if ((site < 0) || (site >= lattice.sites()))
+            throw new java.lang.IndexOutOfBoundsException("invalid index");
+        return lattice.isTop(site) || (grid.flags(site) & TOP) != 0;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of open bonds.
+     *************************************************************************/
+    public long numberOfOpenBonds() {
+        return openCount;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of bonds.
+     *************************************************************************/
+    public long elements() {
+        return bonds;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of bond indices.
+     *************************************************************************/
+    public long indices() {
+        return indices;
+    }
+
+    /**************************************************************************
+     * Method that opens bonds drawn from a generator of indices until the
+     * system percolates, and returns the number of open bonds then.
+     *************************************************************************/
+    public long openUntilPercolates(LongSupplier order) {
+        while (!percolates) {
+            long b = order.getAsLong();
+            if ((b < 0) || (b >= indices))
+                throw new java.lang.IndexOutOfBoundsException("index out of bounds");
+            openBond(b);
+        }
+        return openCount;
+    }
+
+    /**************************************************************************
+     * Method that says whether the system percolates.
+     *************************************************************************/
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**************************************************************************
+     * Method that blocks every bond again. Only the two sites of each open
+     * bond were touched in the union-find, so only those are reset.
+     *************************************************************************/
+    public void reset() {
+        if (openCount > 0) {
+            long words = openBonds.words();
+            for (long w = 0; w < words; w++) {
+                long word = openBonds.word(w);
+                if (word != 0) {
+                    openBonds.clearWord(w);
+                    long base = w << 6;
+                    while (word != 0) {
+                        long b = base + Long.numberOfTrailingZeros(word);
+                        long site = b / forward;
+                        grid.reset(site);
+                        grid.reset(lattice.neighbor(site, (int) (b % forward)));
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        openCount  = 0;
+        percolates = false;
+    }
+
+    /**************************************************************************
+     * Helper method that opens a validated bond index. Each end is flagged
+     * with its boundary before the union, so flags reach the root.
+     *************************************************************************/
+    private void openBond(long b) {
+        long site = b / forward;
+        long neighbor = -1;
+        if (!openBonds.contains(b)) {
+            neighbor = lattice.neighbor(site, (int) (b % forward));
+        }
+        if (neighbor < 0) {                  // open, or past the edge
+            if (Metrics.ENABLED) {
+                Metrics.reject();
+            }
+            return;
+        }
+        openBonds.add(b);
+        openCount++;
+        if (Metrics.ENABLED) {
+            Metrics.open();
+        }
+        flagBoundary(site);
+        flagBoundary(neighbor);
+        long root = grid.union(site, neighbor);
+        if (grid.flags(root) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that flags a site's component if the site is on the
+     * top or bottom boundary.
+     *************************************************************************/
+    private void flagBoundary(long site) {
+        int flags = 0;
+        if (lattice.isTop(site)) {
+            flags |= TOP;
+        }
+        if (lattice.isBottom(site)) {
+            flags |= BOTTOM;
+        }
+        if (flags != 0) {
+            grid.mark(site, flags);
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test a 3-by-3 square: 12 bonds, and a straight column percolates
+        StdOut.print("Test bond count: ");
+        BondPercolation x = new BondPercolation(new SquareLattice(3));
+        if (x.elements() == 12 && x.indices() == 18) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test a lattice with no bonds
+        StdOut.print("Test lattice without bonds: ");
+        try {
+            new BondPercolation(new SquareLattice(1));
+            StdOut.println("FAILED");
+        } catch (java.lang.IllegalArgumentException e) {
+            StdOut.println("passed: exception caught");
+        }
+
+        // bonds down from (0, 1) and (1, 1): site * 2 + 1
+        StdOut.print("Test percolates: ");
+        x.open(3);
+        if (!x.percolates() && x.isFull(4)) {
+            x.open(9);
+            if (x.percolates() && x.isFull(7) && !x.isFull(6)) {
+                StdOut.println("passed");
+            } else {
+                StdOut.println("FAILED");
+            }
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test that an edge index is skipped and reset blocks everything
+        StdOut.print("Test edge index and reset: ");
+        x.open(4);                            // right of (0, 2): no bond
+        long opened = x.numberOfOpenBonds();
+        x.reset();
+        if (opened == 2 && !x.percolates() && !x.isFull(4) && !x.isOpen(3)) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac Checkpoint.java
+ * Execution:     java Checkpoint
+ *
+ * Defines the saved state of a PercolationStats run: the master seed, the
+ * elements per system and T, which identify the run, then the range of
+ * blocks completed and the moments of their thresholds. Block b always
+ * draws from the stream seeded with output b of the master seed, so the
+ * next block number is the whole random state.
+ *
+ * The file is big-endian, 104 bytes plus 8 per histogram bin:
+ *
+ *     int magic, int version, long seed, long elements, long T,
+ *     long start, long next, then the ThresholdAccumulator.
+ *
+ * It is written to a temporary file beside the target, forced to disk,
+ * and only then renamed over it, so a crash or power loss at any point
+ * leaves either the previous checkpoint or the new one, never a torn one.
+ *---------------------------------------------------------------------------*/
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class Checkpoint {
+    private static final int MAGIC = 0x50435354;   // "PCST"
+    private static final int VERSION = 2;
+
+    private long seed;                             // master seed
+    private long elements;                         // elements per system
+    private long trials;                           // T of the run
+    private long start;                            // first block completed
+    private long next;                             // first block to run
+    private ThresholdAccumulator thresholds;       // blocks start to next - 1
+
+    /**************************************************************************
+     * Class constructor method for a run that has completed blocks start
+     * through next - 1. Copies the thresholds, so the run can go on adding
+     * to its own.
+     *************************************************************************/
+    public Checkpoint(long seed, long elements, long trials, long start,
+                      long next, ThresholdAccumulator thresholds) {
+        if (start < 0 || next < start)
+            throw new java.lang.IllegalArgumentException("bad block range");
+        this.seed = seed;
+        this.elements = elements;
+        this.trials = trials;
+        this.start = start;
+        this.next = next;
+        this.thresholds = new ThresholdAccumulator(thresholds.limit());
+        this.thresholds.merge(thresholds);
+    }
+
+    /**************************************************************************
+     * Method that returns the master seed.
+     *************************************************************************/
+    public long seed() {
+        return seed;
+    }
+
+    /**************************************************************************
+     * Method that returns the elements per system.
+     *************************************************************************/
+    public long elements() {
+        return elements;
+    }
+
+    /**************************************************************************
+     * Method that returns T, the most trials the run makes.
+     *************************************************************************/
+    public long trials() {
+        return trials;
+    }
+
+    /**************************************************************************
+     * Method that returns the first block completed.
+     *************************************************************************/
+    public long start() {
+        return start;
+    }
+
+    /**************************************************************************
+     * Method that returns the block after the last one completed.
+     *************************************************************************/
+    public long next() {
+        return next;
+    }
+
+    /**************************************************************************
+     * Method that returns the moments of the completed blocks.
+     *************************************************************************/
+    public ThresholdAccumulator thresholds() {
+        return thresholds;
+    }
+
+    /**************************************************************************
+     * Method that writes the checkpoint to a file, atomically replacing
+     * any previous one.
+     *************************************************************************/
+    public void write(Path file) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeLong(elements);
+            out.writeLong(trials);
+            out.writeLong(start);
+            out.writeLong(next);
+            thresholds.writeTo(out);
+            out.flush();
+            channel.force(true);           // data on disk before the rename
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**************************************************************************
+     * Method that reads a checkpoint written by write.
+     *************************************************************************/
+    public static Checkpoint read(Path file) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                throw new java.lang.IllegalArgumentException(
+                    file + " is not a checkpoint");
+            if (in.readInt() != VERSION)
+                throw new java.lang.IllegalArgumentException(
+                    file + " has an unknown version");
+            long seed = in.readLong();
+            long elements = in.readLong();
+            long trials = in.readLong();
+            long start = in.readLong();
+            long next = in.readLong();
+            return new Checkpoint(seed, elements, trials, start, next,
+                                  ThresholdAccumulator.readFrom(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Test that a checkpoint reads back as written
+        StdOut.print("Test write and read: ");
+        ThresholdAccumulator thresholds = new ThresholdAccumulator(1 << 30);
+        for (int i = 0; i < 100; i++) {
+            thresholds.add(StdRandom.uniform(1 << 30));
+        }
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        new Checkpoint(42L, 400L, 1000L, 3L, 9L, thresholds).write(file);
+        Checkpoint copy = read(file);
+        if (Files.size(file) == 104 + 8 * ThresholdAccumulator.HISTOGRAM_BINS
+                && copy.seed() == 42L
+                && copy.elements() == 400L && copy.trials() == 1000L
+                && copy.start() == 3L && copy.next() == 9L
+                && copy.thresholds().count() == 100
+                && copy.thresholds().mean() == thresholds.mean()
+                && copy.thresholds().stddev() == thresholds.stddev()
+                && copy.thresholds().min() == thresholds.min()
+                && copy.thresholds().max() == thresholds.max()
+                && java.util.Arrays.equals(copy.thresholds().histogram(),
+                                           thresholds.histogram())) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test that another file is rejected
+        StdOut.print("Test bad magic: ");
+        Files.write(file, new byte[104]);
+        try {
+            read(file);
+            StdOut.println("FAILED");
+        } catch (IllegalArgumentException e) {
+            StdOut.println("passed");
+        }
+        Files.delete(file);
+    }
+}
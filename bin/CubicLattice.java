@@ -0,0 +1,71 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac CubicLattice.java
+ *
+ * Defines the N-by-N-by-N simple cubic lattice. Site (x, y, z) is at
+ * index (z*N + y)*N + x; layer z = 0 is the top and z = N - 1 the bottom.
+ * Directions: 0 +x, 1 +y, 2 +z, 3 -x, 4 -y, 5 -z.
+ *---------------------------------------------------------------------------*/
+
+public class CubicLattice implements Lattice {
+    private int width; // sites along each axis
+    private long area; // sites per layer
+
+    /**************************************************************************
+     * Class constructor method for an N-by-N-by-N lattice.
+     *************************************************************************/
+    public CubicLattice(int N) {
+        if (N < 1)
+            throw new java.lang.IllegalArgumentException("index out of bounds");
+        width = N;
+        area = (long) N * N;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of sites.
+     *************************************************************************/
+    public long sites() {
+        return area * width;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of neighbor directions.
+     *************************************************************************/
+    public int directions() {
+        return 6;
+    }
+
+    /**************************************************************************
+     * Method that returns the neighbor of site in direction d, or -1.
+     *************************************************************************/
+    public long neighbor(long site, int d) {
+        long z = site / area;
+        long rest = site - z * area;
+        long y = rest / width;
+        long x = rest - y * width;
+        switch (d) {
+            case 0:  return (x != width - 1) ? site + 1 : -1;
+            case 1:  return (y != width - 1) ? site + width : -1;
+            case 2:  return (z != width - 1) ? site + area : -1;
+            case 3:  return (x != 0) ? site - 1 : -1;
+            case 4:  return (y != 0) ? site - width : -1;
+            default: return (z != 0) ? site - area : -1;
+        }
+    }
+
+    /**************************************************************************
+     * Method that says if a site is on the top boundary.
+     *************************************************************************/
+    public boolean isTop(long site) {
+        return site < area;
+    }
+
+    /**************************************************************************
+     * Method that says if a site is on the bottom boundary.
+     *************************************************************************/
+    public boolean isBottom(long site) {
+        return site >= sites() - area;
+    }
+}
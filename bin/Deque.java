@@ -1,15 +1,29 @@
 /*-----------------------------------------------------------------------------
  * Author:        Mark Johnson
  * Written:       8/30/2012
- * Last Updated:  9/4/2012
+ * Last Updated:  10/18/2026
  *
  * Compilation:   javac Deque.java
  * Execution:     java Deque
  *
  * Defines a Deque type, with specified operations.
+ *
+ * Besides the single-item operations, appendAll and prependAll splice a
+ * whole other Deque onto either end in constant time, addAll links the
+ * items of any Iterable in one pass, and drainTo hands up to max items
+ * from the front to a Collection, unlinking them all at once.
+ *
+ * spliterator, stream and parallelStream cover the items front to back,
+ * splitting a range in two halves of known size by walking half of it.
+ * The Deque must not change while a stream is running over it.
  *---------------------------------------------------------------------------*/
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Deque<Item> implements Iterable<Item> {
     private Node first;
@@ -109,6 +123,9 @@ public class Deque<Item> implements Iterable<Item> {
             first.previous = null;     // null previous, pointed to old first
         }
         size--;                        // decrement size
+        if (size == 0) {
+            last = null;               // no stale end to link onto
+        }
 	return removedItem.item;       // return reference
     }
 
@@ -129,9 +146,134 @@ public class Deque<Item> implements Iterable<Item> {
             last.next = null;
         }
         size--;
+        if (size == 0) {
+            first = null;
+        }
         return item;
     }
 
+    /**************************************************************************
+     * Method that moves every item of other to the back of the Deque, in
+     * order, leaving other empty. Constant time: the two lists are linked
+     * end to end.
+     *************************************************************************/
+    public void appendAll(Deque<Item> other) {
+        if (other == this) {
+            throw new java.lang.IllegalArgumentException("same deque");
+        }
+        if (other.isEmpty()) {
+            return;
+        }
+        if (this.isEmpty()) {
+            first = other.first;
+        } else {
+            last.next = other.first;
+            other.first.previous = last;
+        }
+        last = other.last;
+        size += other.size;
+        other.clear();
+    }
+
+    /**************************************************************************
+     * Method that moves every item of other to the front of the Deque, in
+     * order, leaving other empty. Constant time.
+     *************************************************************************/
+    public void prependAll(Deque<Item> other) {
+        if (other == this) {
+            throw new java.lang.IllegalArgumentException("same deque");
+        }
+        if (other.isEmpty()) {
+            return;
+        }
+        if (this.isEmpty()) {
+            last = other.last;
+        } else {
+            first.previous = other.last;
+            other.last.next = first;
+        }
+        first = other.first;
+        size += other.size;
+        other.clear();
+    }
+
+    /**************************************************************************
+     * Method that adds every item of items to the back of the Deque, in
+     * order. The new nodes are linked to each other first and then to the
+     * Deque, so a null item leaves the Deque unchanged, and items may be
+     * the Deque itself.
+     *************************************************************************/
+    public void addAll(Iterable<? extends Item> items) {
+        Node head = null;
+        Node tail = null;
+        int count = 0;
+        for (Item item : items) {
+            if (item == null) {
+                throw new java.lang.NullPointerException();
+            }
+            Node newNode = new Node();
+            newNode.item = item;
+            newNode.previous = tail;
+            if (tail == null) {
+                head = newNode;
+            } else {
+                tail.next = newNode;
+            }
+            tail = newNode;
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        if (this.isEmpty()) {
+            first = head;
+        } else {
+            last.next = head;
+            head.previous = last;
+        }
+        last = tail;
+        size += count;
+    }
+
+    /**************************************************************************
+     * Method that removes up to max items from the front of the Deque and
+     * adds them to target in order, returning how many moved. The removed
+     * nodes are unlinked from the Deque once, after the walk.
+     *************************************************************************/
+    public int drainTo(Collection<? super Item> target, int max) {
+        if (target == null) {
+            throw new java.lang.NullPointerException();
+        }
+        if (max < 0) {
+            throw new java.lang.IllegalArgumentException("negative max");
+        }
+        int count = Math.min(max, size);
+        Node current = first;
+        for (int i = 0; i < count; i++) {
+            target.add(current.item);
+            current = current.next;
+        }
+        if (count == size) {
+            clear();
+        } else if (count > 0) {
+            current.previous.next = null;
+            current.previous = null;
+            first = current;
+            size -= count;
+        }
+        return count;
+    }
+
+    /**************************************************************************
+     * Helper method that empties the Deque without touching its nodes,
+     * which another Deque may now own.
+     *************************************************************************/
+    private void clear() {
+        first = null;
+        last = null;
+        size = 0;
+    }
+
     /**************************************************************************
      * Method that returns an iterator on the Deque.
      *************************************************************************/
@@ -139,6 +281,90 @@ public class Deque<Item> implements Iterable<Item> {
         return new DequeIterator();
     }
 
+    /**************************************************************************
+     * Method that returns a spliterator over the Deque, front to back:
+     * ORDERED, SIZED and SUBSIZED.
+     *************************************************************************/
+    public Spliterator<Item> spliterator() {
+        return new DequeSpliterator(first, size);
+    }
+
+    /**************************************************************************
+     * Method that returns a sequential stream over the Deque.
+     *************************************************************************/
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**************************************************************************
+     * Method that returns a parallel stream over the Deque.
+     *************************************************************************/
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**************************************************************************
+     * Inner class for splitting the Deque. Covers remaining nodes starting
+     * at current.
+     *************************************************************************/
+    private class DequeSpliterator implements Spliterator<Item> {
+        private Node current;   // next node
+        private int remaining;  // nodes left in this range
+
+        private DequeSpliterator(Node current, int remaining) {
+            this.current = current;
+            this.remaining = remaining;
+        }
+
+        /**********************************************************************
+         * Method that hands the first half of the range to a new
+         * spliterator, walking half the nodes to find where this one now
+         * starts. Linear in the range, but both halves know their sizes
+         * exactly, so the split is balanced.
+         *********************************************************************/
+        public Spliterator<Item> trySplit() {
+            if (remaining < 2) {
+                return null;
+            }
+            int half = remaining / 2;
+            DequeSpliterator prefix = new DequeSpliterator(current, half);
+            for (int i = 0; i < half; i++) {
+                current = current.next;
+            }
+            remaining -= half;
+            return prefix;
+        }
+
+        public boolean tryAdvance(Consumer<? super Item> action) {
+            if (remaining == 0) {
+                return false;
+            }
+            Item item = current.item;
+            current = current.next;
+            remaining--;
+            action.accept(item);
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super Item> action) {
+            Node node = current;
+            for (int i = remaining; i > 0; i--) {
+                action.accept(node.item);
+                node = node.next;
+            }
+            current = node;
+            remaining = 0;
+        }
+
+        public long estimateSize() {
+            return remaining;
+        }
+
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
     /**************************************************************************
      * Inner class for iterating over the Deque.
      *************************************************************************/
@@ -429,5 +655,69 @@ public class Deque<Item> implements Iterable<Item> {
         for (String xyz : test26Deque) {
             StdOut.println(xyz);
         }
+
+        // Test emptying then refilling from the other end
+        StdOut.print("Test refill after emptying: ");
+        Deque<String> test27Deque = new Deque<String>();
+        test27Deque.addLast("1");
+        test27Deque.removeLast();
+        test27Deque.addFirst("2");
+        Iterator<String> itr10 = test27Deque.iterator();
+        if (itr10.next().equals("2") && !itr10.hasNext()) {
+            StdOut.println("\t\t\tpassed");
+        } else {
+            StdOut.println("\t\t\tFAILED");
+        }
+
+        // Test appendAll and prependAll, then addAll and drainTo
+        StdOut.print("Test splice and bulk transfer: ");
+        Deque<Integer> test28Deque = new Deque<Integer>();
+        Deque<Integer> test29Deque = new Deque<Integer>();
+        test28Deque.addLast(3);
+        test29Deque.addLast(4);
+        test29Deque.addLast(5);
+        test28Deque.appendAll(test29Deque);
+        test29Deque.addLast(1);
+        test29Deque.addLast(2);
+        test28Deque.prependAll(test29Deque);
+        test28Deque.addAll(java.util.Arrays.asList(6, 7));
+        test28Deque.addAll(test28Deque);
+        java.util.List<Integer> drained = new java.util.ArrayList<Integer>();
+        int moved = test28Deque.drainTo(drained, 9);
+        boolean spliced = moved == 9 && test29Deque.isEmpty()
+            && drained.equals(java.util.Arrays.asList(1, 2, 3, 4, 5, 6, 7, 1, 2))
+            && test28Deque.size() == 5 && test28Deque.removeFirst() == 3
+            && test28Deque.removeLast() == 7;
+        test28Deque.drainTo(drained, 10);
+        test28Deque.addFirst(8);
+        spliced &= test28Deque.size() == 1 && test28Deque.removeLast() == 8;
+        if (spliced) {
+            StdOut.println("\t\tpassed");
+        } else {
+            StdOut.println("\t\tFAILED");
+        }
+
+        // Test streams, sequential and parallel, keep order
+        StdOut.print("Test stream and parallelStream: ");
+        Deque<Integer> test30Deque = new Deque<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            test30Deque.addLast(i);
+        }
+        Spliterator<Integer> split = test30Deque.spliterator();
+        Spliterator<Integer> prefix = split.trySplit();
+        java.util.List<Integer> ordered = test30Deque.parallelStream()
+            .collect(java.util.stream.Collectors.toList());
+        boolean streamed = test30Deque.stream().mapToLong(i -> i).sum()
+            == 100000L * 99999 / 2 && ordered.size() == 100000
+            && prefix.estimateSize() == 50000 && split.estimateSize() == 50000;
+        for (int i = 0; i < ordered.size(); i++) {
+            streamed &= ordered.get(i) == i;
+        }
+        streamed &= split.tryAdvance(item -> { }) && split.estimateSize() == 49999;
+        if (streamed) {
+            StdOut.println("\t\tpassed");
+        } else {
+            StdOut.println("\t\tFAILED");
+        }
     }
 }
\ No newline at end of file
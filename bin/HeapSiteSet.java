@@ -0,0 +1,64 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac HeapSiteSet.java
+ *
+ * Defines a SiteSet kept in a long array on the heap.
+ *---------------------------------------------------------------------------*/
+
+public class HeapSiteSet implements SiteSet {
+    private long[] bits; // one bit per site
+
+    /**************************************************************************
+     * Class constructor method which creates an empty set of n sites.
+     *************************************************************************/
+    public HeapSiteSet(long n) {
+        long words = (n + 63) >>> 6;
+        if (n < 0 || words > Integer.MAX_VALUE)
+            throw new java.lang.IllegalArgumentException("too many sites");
+        bits = new long[(int) words];
+    }
+
+    /**************************************************************************
+     * Method that says if a site is in the set.
+     *************************************************************************/
+    public boolean contains(long site) {
+        return (bits[(int) (site >>> 6)] & (1L << site)) != 0;
+    }
+
+    /**************************************************************************
+     * Method that adds a site to the set.
+     *************************************************************************/
+    public void add(long site) {
+        bits[(int) (site >>> 6)] |= 1L << site;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of 64-bit words.
+     *************************************************************************/
+    public long words() {
+        return bits.length;
+    }
+
+    /**************************************************************************
+     * Method that returns word w.
+     *************************************************************************/
+    public long word(long w) {
+        return bits[(int) w];
+    }
+
+    /**************************************************************************
+     * Method that replaces word w.
+     *************************************************************************/
+    public void setWord(long w, long word) {
+        bits[(int) w] = word;
+    }
+
+    /**************************************************************************
+     * Method that removes every site in word w.
+     *************************************************************************/
+    public void clearWord(long w) {
+        bits[(int) w] = 0;
+    }
+}
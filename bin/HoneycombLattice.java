@@ -0,0 +1,67 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac HoneycombLattice.java
+ *
+ * Defines the N-by-N honeycomb lattice, drawn as a brick wall: every site
+ * links left and right, and site (row, column) links down when row +
+ * column is even, up when it is odd. Each site has three neighbors.
+ * Directions: 0 right, 1 down, 2 left, 3 up; one of 1 and 3 is absent.
+ *---------------------------------------------------------------------------*/
+
+public class HoneycombLattice implements Lattice {
+    private int width; // sites per row and per column
+
+    /**************************************************************************
+     * Class constructor method for an N-by-N lattice.
+     *************************************************************************/
+    public HoneycombLattice(int N) {
+        if (N < 1)
+            throw new java.lang.IllegalArgumentException("index out of bounds");
+        width = N;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of sites.
+     *************************************************************************/
+    public long sites() {
+        return (long) width * width;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of neighbor directions.
+     *************************************************************************/
+    public int directions() {
+        return 4;
+    }
+
+    /**************************************************************************
+     * Method that returns the neighbor of site in direction d, or -1.
+     *************************************************************************/
+    public long neighbor(long site, int d) {
+        long row = site / width;
+        long column = site - row * width;
+        boolean even = ((row + column) & 1) == 0;
+        switch (d) {
+            case 0:  return (column != width - 1) ? site + 1 : -1;
+            case 1:  return (even && row != width - 1) ? site + width : -1;
+            case 2:  return (column != 0) ? site - 1 : -1;
+            default: return (!even && row != 0) ? site - width : -1;
+        }
+    }
+
+    /**************************************************************************
+     * Method that says if a site is on the top boundary.
+     *************************************************************************/
+    public boolean isTop(long site) {
+        return site < width;
+    }
+
+    /**************************************************************************
+     * Method that says if a site is on the bottom boundary.
+     *************************************************************************/
+    public boolean isBottom(long site) {
+        return site >= sites() - width;
+    }
+}
@@ -0,0 +1,346 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac HoshenKopelman.java
+ * Execution:     java HoshenKopelman N p seed
+ *
+ * Defines a streaming Hoshen-Kopelman cluster labeller. It reads a grid
+ * one row at a time and collects cluster statistics: the number of
+ * clusters, a size distribution, the largest cluster, and the clusters
+ * that span from the top row to the bottom row.
+ *
+ * Only two rows of labels are kept. After each row, labels are compacted
+ * to the clusters that reach that row, and any cluster that did not
+ * reach it is complete and is counted. Working memory is O(width), so
+ * grids far larger than a Percolation union-find can be analyzed.
+ *---------------------------------------------------------------------------*/
+
+import java.util.SplittableRandom;
+
+public class HoshenKopelman {
+    private static final int TOP    = 1; // cluster touches the top row
+    private static final int BOTTOM = 2; // cluster touches the bottom row
+
+    private int width;            // sites per row
+    private int[] previous;       // labels of the previous row, -1 blocked
+    private int[] current;        // labels of the row being read
+    private int labels;           // labels in use by the previous row
+    private int[] parent;         // union-find over labels
+    private long[] size;          // sites per label, valid at roots
+    private byte[] flags;         // TOP/BOTTOM per label, valid at roots
+    private int[] remap;          // compaction map from label to new label
+    private long[] nextSize;      // sizes after compaction
+    private byte[] nextFlags;     // flags after compaction
+    private long rows;            // rows read so far
+    private boolean finished;     // finish has been called
+
+    private long openSites;          // open sites read so far
+    private long clusters;           // completed clusters
+    private long largestCluster;     // size of largest completed cluster
+    private long spanningClusters;   // completed clusters touching both rows
+    private long largestSpanning;    // size of largest spanning cluster
+    private long[] sizeHistogram;    // clusters by floor(log2(size))
+
+    /**************************************************************************
+     * Class constructor method for a grid whose rows hold width sites.
+     * A row has at most (width + 1) / 2 clusters, so two rows of labels
+     * never need more than width + 1 labels at once.
+     *************************************************************************/
+    public HoshenKopelman(int width) {
+        if (width < 1)
+            throw new java.lang.IllegalArgumentException("width must be positive");
+        this.width = width;
+        previous  = new int[width];
+        current   = new int[width];
+        parent    = new int[width + 2];
+        size      = new long[width + 2];
+        flags     = new byte[width + 2];
+        remap     = new int[width + 2];
+        nextSize  = new long[width + 2];
+        nextFlags = new byte[width + 2];
+        sizeHistogram = new long[64];
+        java.util.Arrays.fill(previous, -1);
+    }
+
+    /**************************************************************************
+     * Method that reads the next row; open[j] says if column j is open.
+     *************************************************************************/
+    public void addRow(boolean[] open) {
+        if (finished)
+            throw new java.lang.IllegalStateException("already finished");
+        if (open.length != width)
+            throw new java.lang.IllegalArgumentException("row has wrong width");
+        boolean top = (rows == 0);
+        int next = labels;
+        for (int j = 0; j < width; j++) {
+            if (!open[j]) {
+                current[j] = -1;
+                continue;
+            }
+            int up = previous[j];
+            int left = (j > 0) ? current[j - 1] : -1;
+            int root;
+            if (up < 0 && left < 0) {
+                root = next++;
+                parent[root] = root;
+                size[root] = 0;
+                flags[root] = 0;
+            } else if (up < 0) {
+                root = find(left);
+            } else if (left < 0) {
+                root = find(up);
+            } else {
+                root = union(find(up), find(left));
+            }
+            current[j] = root;
+            size[root]++;
+            if (top) {
+                flags[root] |= TOP;
+            }
+            openSites++;
+        }
+        compact(next);
+        rows++;
+    }
+
+    /**************************************************************************
+     * Method that ends the grid: the last row read is the bottom row, and
+     * the clusters that reach it are counted.
+     *************************************************************************/
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        for (int k = 0; k < labels; k++) {
+            record(size[k], flags[k] | BOTTOM);
+        }
+        labels = 0;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of rows read.
+     *************************************************************************/
+    public long rows() {
+        return rows;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of open sites read.
+     *************************************************************************/
+    public long openSites() {
+        return openSites;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of completed clusters. Clusters that
+     * reach the last row are completed by finish.
+     *************************************************************************/
+    public long clusters() {
+        return clusters;
+    }
+
+    /**************************************************************************
+     * Method that returns the size of the largest completed cluster.
+     *************************************************************************/
+    public long largestCluster() {
+        return largestCluster;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of clusters joining top and bottom.
+     *************************************************************************/
+    public long spanningClusters() {
+        return spanningClusters;
+    }
+
+    /**************************************************************************
+     * Method that returns the size of the largest spanning cluster, or 0.
+     *************************************************************************/
+    public long largestSpanningCluster() {
+        return largestSpanning;
+    }
+
+    /**************************************************************************
+     * Method that returns the cluster size distribution: entry k counts
+     * the completed clusters whose size s has 2^k <= s < 2^(k+1).
+     *************************************************************************/
+    public long[] sizeHistogram() {
+        return sizeHistogram.clone();
+    }
+
+    /**************************************************************************
+     * Method that labels the N-by-N grid Percolation.openRandom(p, seed)
+     * would open, without holding the grid. Draws are made in site order
+     * from the same per-block streams, so the grids are identical.
+     *************************************************************************/
+    public static HoshenKopelman analyze(int N, double p, long seed) {
+        if (!(p >= 0.0 && p <= 1.0))
+            throw new java.lang.IllegalArgumentException("p not in [0, 1]");
+        HoshenKopelman labeller = new HoshenKopelman(N);
+        boolean[] row = new boolean[N];
+        long sitesPerBlock = 64L * Percolation.FILL_WORDS;
+        SplittableRandom random = null;
+        long site = 0;
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++, site++) {
+                if (site % sitesPerBlock == 0) {
+                    random = new SplittableRandom(
+                        BatchedRandom.mix64(seed, site / sitesPerBlock));
+                }
+                row[j] = random.nextDouble() < p;
+            }
+            labeller.addRow(row);
+        }
+        labeller.finish();
+        return labeller;
+    }
+
+    /**************************************************************************
+     * Helper method that renumbers the roots reached by the current row as
+     * 0, 1, 2, ... and counts the previous row's clusters that were not
+     * reached, since they can not grow any further.
+     *************************************************************************/
+    private void compact(int used) {
+        java.util.Arrays.fill(remap, 0, used, -1);
+        int kept = 0;
+        for (int j = 0; j < width; j++) {
+            if (current[j] < 0) {
+                continue;
+            }
+            int root = find(current[j]);
+            if (remap[root] < 0) {
+                remap[root] = kept;
+                nextSize[kept] = size[root];
+                nextFlags[kept] = flags[root];
+                kept++;
+            }
+            current[j] = remap[root];
+        }
+        for (int k = 0; k < labels; k++) {
+            if (parent[k] == k && remap[k] < 0) {
+                record(size[k], flags[k]);
+            }
+        }
+        for (int k = 0; k < kept; k++) {
+            parent[k] = k;
+            size[k] = nextSize[k];
+            flags[k] = nextFlags[k];
+        }
+        labels = kept;
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+    }
+
+    /**************************************************************************
+     * Helper method that counts one completed cluster.
+     *************************************************************************/
+    private void record(long clusterSize, int clusterFlags) {
+        clusters++;
+        sizeHistogram[63 - Long.numberOfLeadingZeros(clusterSize)]++;
+        largestCluster = Math.max(largestCluster, clusterSize);
+        if (clusterFlags == (TOP | BOTTOM)) {
+            spanningClusters++;
+            largestSpanning = Math.max(largestSpanning, clusterSize);
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that finds the root label of k with path halving.
+     *************************************************************************/
+    private int find(int k) {
+        while (parent[k] != k) {
+            parent[k] = parent[parent[k]];
+            k = parent[k];
+        }
+        return k;
+    }
+
+    /**************************************************************************
+     * Helper method that merges two root labels by size, and returns the
+     * surviving root.
+     *************************************************************************/
+    private int union(int rootA, int rootB) {
+        if (rootA == rootB) {
+            return rootA;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        flags[rootA] |= flags[rootB];
+        return rootA;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 3) {
+            int N = Integer.parseInt(args[0]);
+            double p = Double.parseDouble(args[1]);
+            long seed = Long.parseLong(args[2]);
+            HoshenKopelman stats = analyze(N, p, seed);
+            StdOut.println("open sites\t\t= " + stats.openSites());
+            StdOut.println("clusters\t\t= " + stats.clusters());
+            StdOut.println("largest cluster\t\t= " + stats.largestCluster());
+            StdOut.println("spanning clusters\t= " + stats.spanningClusters());
+            StdOut.println("largest spanning\t= "
+                           + stats.largestSpanningCluster());
+            long[] histogram = stats.sizeHistogram();
+            for (int k = 0; k < histogram.length; k++) {
+                if (histogram[k] > 0) {
+                    StdOut.println("size " + (1L << k) + "+\t\t= "
+                                   + histogram[k]);
+                }
+            }
+            return;
+        }
+
+        // Test a U shape: one cluster joined only through the bottom row
+        StdOut.print("Test U-shaped cluster: ");
+        HoshenKopelman u = new HoshenKopelman(3);
+        u.addRow(new boolean[] { true, false, true });
+        u.addRow(new boolean[] { true, false, true });
+        u.addRow(new boolean[] { true, true, true });
+        u.finish();
+        if (u.clusters() == 1 && u.largestCluster() == 7
+                && u.spanningClusters() == 1) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test clusters that end before the bottom row
+        StdOut.print("Test completed clusters: ");
+        HoshenKopelman c = new HoshenKopelman(4);
+        c.addRow(new boolean[] { true, false, true, true });
+        c.addRow(new boolean[] { false, false, false, true });
+        c.addRow(new boolean[] { true, true, false, false });
+        c.finish();
+        if (c.clusters() == 3 && c.largestCluster() == 3
+                && c.spanningClusters() == 0 && c.openSites() == 6) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test against Percolation on the same random grids
+        StdOut.print("Test against Percolation.openRandom: ");
+        boolean same = true;
+        Percolation grid = new Percolation(200);
+        for (long seed = 1; seed <= 20; seed++) {
+            HoshenKopelman stats = analyze(200, 0.593, seed);
+            grid.openRandom(0.593, seed);
+            same = same && stats.openSites() == grid.numberOfOpenSites()
+                        && (stats.spanningClusters() > 0) == grid.percolates();
+        }
+        if (same) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}
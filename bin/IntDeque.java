@@ -0,0 +1,261 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac IntDeque.java
+ * Execution:     java IntDeque
+ *
+ * Defines a deque of ints with the operations of Deque, stored unboxed
+ * in linked blocks of BLOCK ints as in BlockDeque: 4 bytes per item.
+ * Emptied blocks go on a free list instead of to the garbage collector,
+ * so once the deque has held its peak number of items it never allocates
+ * again, whatever the mix of operations. Like java.util.ArrayDeque, it
+ * then keeps room for that peak; trimToSize gives the free blocks back.
+ * The iterator returns the ints with nextInt, also without boxing.
+ *
+ * LongDeque and DoubleDeque are the same code for longs and doubles. They
+ * are copies, not one shared class, because Java generics do not range
+ * over primitives, so sharing the code would mean boxing again; and the
+ * classes here compile with plain javac, with no build step to generate
+ * them from a template. A change to one must be made to all three.
+ *---------------------------------------------------------------------------*/
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+public class IntDeque implements Iterable<Integer> {
+    private static final int BLOCK = 256; // items per block
+
+    private Block first;                  // block holding the first item
+    private Block last;                   // block holding the last item
+    private int head;                     // index of first item in first
+    private int tail;                     // index after last item in last
+    private int size;                     // number of items
+    private Block spare;                  // free list, linked by next
+
+    private static class Block {
+        private int[] items = new int[BLOCK];
+        private Block next;
+        private Block previous;
+    }
+
+    /**************************************************************************
+     * Method for default IntDeque construction.
+     *************************************************************************/
+    public IntDeque() {
+        first = new Block();
+        last = first;
+        head = BLOCK / 2;
+        tail = BLOCK / 2;
+        size = 0;
+    }
+
+    /**************************************************************************
+     * Method that says if the IntDeque is empty.
+     *************************************************************************/
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    /**************************************************************************
+     * Method that returns size.
+     *************************************************************************/
+    public int size() {
+        return size;
+    }
+
+    /**************************************************************************
+     * Method that adds an item to the front of the IntDeque.
+     *************************************************************************/
+    public void addFirst(int item) {
+        if (head == 0) {
+            Block block = newBlock();
+            block.next = first;
+            first.previous = block;
+            first = block;
+            head = BLOCK;
+        }
+        first.items[--head] = item;
+        size++;
+    }
+
+    /**************************************************************************
+     * Method that adds an item to the back of the IntDeque.
+     *************************************************************************/
+    public void addLast(int item) {
+        if (tail == BLOCK) {
+            Block block = newBlock();
+            block.previous = last;
+            last.next = block;
+            last = block;
+            tail = 0;
+        }
+        last.items[tail++] = item;
+        size++;
+    }
+
+    /**************************************************************************
+     * Method that removes the item at the front of the IntDeque.
+     *************************************************************************/
+    public int removeFirst() {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        int item = first.items[head++];
+        size--;
+        if (head == BLOCK && first != last) {
+            Block empty = first;
+            first = first.next;
+            first.previous = null;
+            head = 0;
+            recycle(empty);
+        }
+        if (size == 0) {
+            head = BLOCK / 2;
+            tail = BLOCK / 2;
+        }
+        return item;
+    }
+
+    /**************************************************************************
+     * Method that removes the item at the back of the IntDeque.
+     *************************************************************************/
+    public int removeLast() {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        int item = last.items[--tail];
+        size--;
+        if (tail == 0 && first != last) {
+            Block empty = last;
+            last = last.previous;
+            last.next = null;
+            tail = BLOCK;
+            recycle(empty);
+        }
+        if (size == 0) {
+            head = BLOCK / 2;
+            tail = BLOCK / 2;
+        }
+        return item;
+    }
+
+    /**************************************************************************
+     * Method that returns an unboxed iterator on the IntDeque, front to
+     * back.
+     *************************************************************************/
+    public PrimitiveIterator.OfInt iterator() {
+        return new IntDequeIterator();
+    }
+
+    /**************************************************************************
+     * Method that gives the free blocks back to the garbage collector, so
+     * the deque holds only the blocks its items need.
+     *************************************************************************/
+    public void trimToSize() {
+        spare = null;
+    }
+
+    /**************************************************************************
+     * Helper method that takes a block off the free list, or makes one.
+     *************************************************************************/
+    private Block newBlock() {
+        Block block = spare;
+        if (block == null) {
+            return new Block();
+        }
+        spare = block.next;
+        block.next = null;
+        return block;
+    }
+
+    /**************************************************************************
+     * Helper method that puts an unlinked block on the free list.
+     *************************************************************************/
+    private void recycle(Block block) {
+        block.previous = null;
+        block.next = spare;
+        spare = block;
+    }
+
+    /**************************************************************************
+     * Inner class for iterating over the IntDeque.
+     *************************************************************************/
+    private class IntDequeIterator implements PrimitiveIterator.OfInt {
+        private Block block = first;   // block of the next item
+        private int index = head;      // index of the next item in block
+        private int remaining = size;  // items not yet returned
+
+        public int nextInt() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            if (index == BLOCK) {
+                block = block.next;
+                index = 0;
+            }
+            remaining--;
+            return block.items[index++];
+        }
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        public void remove() {
+            throw new java.lang.UnsupportedOperationException();
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test the empty deque
+        StdOut.print("Test empty IntDeque: ");
+        IntDeque empty = new IntDeque();
+        boolean threw = false;
+        try {
+            empty.removeFirst();
+        } catch (NoSuchElementException e) {
+            threw = true;
+        }
+        if (empty.isEmpty() && threw && !empty.iterator().hasNext()) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test random operations against java.util.ArrayDeque
+        StdOut.print("Test against ArrayDeque: ");
+        IntDeque deque = new IntDeque();
+        java.util.ArrayDeque<Integer> model = new java.util.ArrayDeque<Integer>();
+        boolean same = true;
+        for (int step = 0; step < 200000 && same; step++) {
+            int op = StdRandom.uniform(4);
+            if (op == 0) {
+                deque.addFirst(step);
+                model.addFirst(step);
+            } else if (op == 1) {
+                deque.addLast(step);
+                model.addLast(step);
+            } else if (model.isEmpty()) {
+                same = deque.isEmpty();
+            } else if (op == 2) {
+                same = deque.removeFirst() == model.removeFirst();
+            } else {
+                same = deque.removeLast() == model.removeLast();
+            }
+            same &= deque.size() == model.size();
+            if (step % 50000 == 0) {
+                deque.trimToSize();
+            }
+        }
+        PrimitiveIterator.OfInt items = deque.iterator();
+        for (int item : model) {
+            same &= items.hasNext() && items.nextInt() == item;
+        }
+        if (same && !items.hasNext()) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}
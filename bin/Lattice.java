@@ -0,0 +1,48 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac Lattice.java
+ *
+ * Defines the lattice a Percolation or BondPercolation runs on. Sites are
+ * numbered from 0 and addressed with longs. Neighbors are enumerated by
+ * direction number, so no array is allocated per site:
+ *
+ *     for (int d = 0; d < lattice.directions(); d++) {
+ *         long q = lattice.neighbor(site, d);   // -1 past the edge
+ *         ...
+ *     }
+ *
+ * Directions come in opposite pairs: d and d + directions() / 2 point
+ * opposite ways. The first half are the forward directions, and each
+ * bond is named once, as a site and a forward direction.
+ *---------------------------------------------------------------------------*/
+
+public interface Lattice {
+
+    /**************************************************************************
+     * Method that returns the number of sites.
+     *************************************************************************/
+    long sites();
+
+    /**************************************************************************
+     * Method that returns the number of neighbor directions, always even.
+     *************************************************************************/
+    int directions();
+
+    /**************************************************************************
+     * Method that returns the neighbor of site in direction d, or -1 if
+     * there is none.
+     *************************************************************************/
+    long neighbor(long site, int d);
+
+    /**************************************************************************
+     * Method that says if a site is on the top boundary.
+     *************************************************************************/
+    boolean isTop(long site);
+
+    /**************************************************************************
+     * Method that says if a site is on the bottom boundary.
+     *************************************************************************/
+    boolean isBottom(long site);
+}
@@ -0,0 +1,271 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac Metrics.java
+ * Execution:     java -Dpercolation.metrics=true Metrics
+ *
+ * Counts what the hot paths do, to tell why a run is slow: opens and
+ * rejected draws, unions, finds and their path lengths, trial wall time
+ * and RandomizedQueue resizes. The counters are LongAdders, so threads
+ * do not contend on them, and are exposed as the MBean
+ * percolation:type=Metrics. Trials and resizes are also recorded as JFR
+ * events, percolation.Trial and percolation.QueueResize, when a
+ * recording is running.
+ *
+ * Metrics are off unless the JVM starts with -Dpercolation.metrics=true.
+ * ENABLED is a static final constant, so every call site, written as
+ *
+ *     if (Metrics.ENABLED) {
+ *         Metrics.open();
+ *     }
+ *
+ * is removed by the JIT when it is off, along with any counting done
+ * only for it.
+ *---------------------------------------------------------------------------*/
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+public class Metrics implements MetricsMBean {
+    public static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+    private static final LongAdder opens = new LongAdder();
+    private static final LongAdder rejected = new LongAdder();
+    private static final LongAdder unions = new LongAdder();
+    private static final LongAdder finds = new LongAdder();
+    private static final LongAdder findPath = new LongAdder();
+    private static final LongAccumulator maxFindPath =
+        new LongAccumulator(Math::max, 0);
+    private static final LongAdder trials = new LongAdder();
+    private static final LongAdder trialNanos = new LongAdder();
+    private static final LongAccumulator maxTrialNanos =
+        new LongAccumulator(Math::max, 0);
+    private static final LongAdder resizes = new LongAdder();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new Metrics(), new ObjectName("percolation:type=Metrics"));
+            } catch (JMException e) {
+                throw new java.lang.IllegalStateException(e);
+            }
+        }
+    }
+
+    /**************************************************************************
+     * A PercolationStats trial: its block, threshold and wall time.
+     *************************************************************************/
+    @Name("percolation.Trial")
+    @Label("Percolation Trial")
+    @Category("Percolation")
+    static class TrialEvent extends Event {
+        @Label("Block")
+        long block;
+
+        @Label("Threshold")
+        long threshold;
+
+        @Label("Wall Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long wallTime;
+    }
+
+    /**************************************************************************
+     * A RandomizedQueue array resize.
+     *************************************************************************/
+    @Name("percolation.QueueResize")
+    @Label("RandomizedQueue Resize")
+    @Category("Percolation")
+    static class QueueResizeEvent extends Event {
+        @Label("Old Capacity")
+        int from;
+
+        @Label("New Capacity")
+        int to;
+    }
+
+    /**************************************************************************
+     * Method that counts an opened site or bond.
+     *************************************************************************/
+    public static void open() {
+        opens.increment();
+    }
+
+    /**************************************************************************
+     * Method that counts sites opened in bulk.
+     *************************************************************************/
+    public static void open(long count) {
+        opens.add(count);
+    }
+
+    /**************************************************************************
+     * Method that counts a draw that opened nothing.
+     *************************************************************************/
+    public static void reject() {
+        rejected.increment();
+    }
+
+    /**************************************************************************
+     * Method that counts a union that merged two components.
+     *************************************************************************/
+    public static void union() {
+        unions.increment();
+    }
+
+    /**************************************************************************
+     * Method that counts a find that followed the given number of links.
+     *************************************************************************/
+    public static void find(long links) {
+        finds.increment();
+        findPath.add(links);
+        maxFindPath.accumulate(links);
+    }
+
+    /**************************************************************************
+     * Method that records a trial of a block that started at the given
+     * System.nanoTime and ended now with the given threshold.
+     *************************************************************************/
+    public static void trial(long block, long started, long threshold) {
+        long elapsed = System.nanoTime() - started;
+        trials.increment();
+        trialNanos.add(elapsed);
+        maxTrialNanos.accumulate(elapsed);
+        TrialEvent event = new TrialEvent();
+        if (event.shouldCommit()) {
+            event.block = block;
+            event.threshold = threshold;
+            event.wallTime = elapsed;
+            event.commit();
+        }
+    }
+
+    /**************************************************************************
+     * Method that records a RandomizedQueue resize.
+     *************************************************************************/
+    public static void resize(int from, int to) {
+        resizes.increment();
+        QueueResizeEvent event = new QueueResizeEvent();
+        if (event.shouldCommit()) {
+            event.from = from;
+            event.to = to;
+            event.commit();
+        }
+    }
+
+    public long getOpens() {
+        return opens.sum();
+    }
+
+    public long getRejectedDraws() {
+        return rejected.sum();
+    }
+
+    public long getUnions() {
+        return unions.sum();
+    }
+
+    public long getFinds() {
+        return finds.sum();
+    }
+
+    public double getAverageFindPath() {
+        long count = finds.sum();
+        return (count == 0) ? 0.0 : (double) findPath.sum() / count;
+    }
+
+    public long getMaxFindPath() {
+        return maxFindPath.get();
+    }
+
+    public long getTrials() {
+        return trials.sum();
+    }
+
+    public double getAverageTrialMillis() {
+        long count = trials.sum();
+        return (count == 0) ? 0.0 : trialNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxTrialMillis() {
+        return maxTrialNanos.get() / 1e6;
+    }
+
+    public long getQueueResizes() {
+        return resizes.sum();
+    }
+
+    public void reset() {
+        opens.reset();
+        rejected.reset();
+        unions.reset();
+        finds.reset();
+        findPath.reset();
+        maxFindPath.reset();
+        trials.reset();
+        trialNanos.reset();
+        maxTrialNanos.reset();
+        resizes.reset();
+    }
+
+    public static void main(String[] args) throws JMException {
+        if (!ENABLED) {
+            StdOut.println("Metrics are off; run with -Dpercolation.metrics=true");
+            return;
+        }
+        Metrics metrics = new Metrics();
+
+        // Test open, union and reject counts on a 3-by-3 grid
+        StdOut.print("Test percolation counts: ");
+        metrics.reset();
+        Percolation grid = new Percolation(3);
+        grid.open(1, 1);
+        grid.open(2, 1);
+        grid.open(2, 1);
+        grid.open(3, 1);
+        grid.isFull(1, 1);
+        if (metrics.getOpens() == 3 && metrics.getRejectedDraws() == 1
+                && metrics.getUnions() == 2 && metrics.getFinds() > 0
+                && metrics.getMaxFindPath() >= 1) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test trial and resize counts
+        StdOut.print("Test trials and resizes: ");
+        metrics.reset();
+        new PercolationStats(10, 20);
+        RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>();
+        for (int i = 0; i < 4; i++) {
+            queue.enqueue(i);
+        }
+        if (metrics.getTrials() == 20 && metrics.getAverageTrialMillis() > 0.0
+                && metrics.getQueueResizes() == 2) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test that the MBean is registered
+        StdOut.print("Test MBean: ");
+        Object trialCount = ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(new ObjectName("percolation:type=Metrics"), "Trials");
+        if (Long.valueOf(20).equals(trialCount)) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac MetricsMBean.java
+ *
+ * Defines the JMX view of Metrics, registered as percolation:type=Metrics
+ * when metrics are enabled.
+ *---------------------------------------------------------------------------*/
+
+public interface MetricsMBean {
+
+    /**************************************************************************
+     * Method that returns the number of sites or bonds opened.
+     *************************************************************************/
+    long getOpens();
+
+    /**************************************************************************
+     * Method that returns the number of draws that opened nothing: already
+     * open elements, or bond indices past the edge of the lattice.
+     *************************************************************************/
+    long getRejectedDraws();
+
+    /**************************************************************************
+     * Method that returns the number of unions that merged two components.
+     *************************************************************************/
+    long getUnions();
+
+    /**************************************************************************
+     * Method that returns the number of root lookups in the union-find.
+     *************************************************************************/
+    long getFinds();
+
+    /**************************************************************************
+     * Method that returns the mean number of links followed per find.
+     *************************************************************************/
+    double getAverageFindPath();
+
+    /**************************************************************************
+     * Method that returns the most links followed by one find.
+     *************************************************************************/
+    long getMaxFindPath();
+
+    /**************************************************************************
+     * Method that returns the number of PercolationStats trials run.
+     *************************************************************************/
+    long getTrials();
+
+    /**************************************************************************
+     * Method that returns the mean wall time of a trial in milliseconds.
+     *************************************************************************/
+    double getAverageTrialMillis();
+
+    /**************************************************************************
+     * Method that returns the longest wall time of a trial in milliseconds.
+     *************************************************************************/
+    double getMaxTrialMillis();
+
+    /**************************************************************************
+     * Method that returns the number of RandomizedQueue array resizes.
+     *************************************************************************/
+    long getQueueResizes();
+
+    /**************************************************************************
+     * Method that sets every counter back to zero.
+     *************************************************************************/
+    void reset();
+}
@@ -0,0 +1,400 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac NewmanZiff.java
+ * Execution:     java NewmanZiff
+ *
+ * Runs the Newman-Ziff algorithm for site percolation: each trial opens
+ * every site of a lattice once, in random order, and records after each
+ * open whether a cluster spans top to bottom and the size of the largest
+ * cluster. Averaged over trials these are the microcanonical curves R(n)
+ * and S(n) at n open sites. The canonical curves at occupation p follow
+ * by convolving with the binomial distribution of n,
+ *
+ *     P(p) = sum over n of C(M, n) p^n (1 - p)^(M - n) R(n),
+ *
+ * so one pass of opens per trial gives the whole curve. The opens at
+ * which each trial first spans are the usual thresholds, and are kept in
+ * a ThresholdAccumulator. PercolationStats prints the curves with
+ * -curve K.
+ *
+ * Clusters use union by size with path splitting: parent[i] is 0 for a
+ * closed site, p + 1 for a link to p, and -size for a root, whose TOP
+ * and BOTTOM flags are in flags[i].
+ *
+ * Trials are seeded per block as in PercolationStats, block b drawing
+ * from generators.apply(seed of block b), a BatchedRandom unless another
+ * generator is injected. A trial here draws
+ * the whole opening order rather than stopping at the threshold, so the
+ * streams diverge after the first trial of a block and the thresholds
+ * agree with PercolationStats in distribution, not draw for draw.
+ *---------------------------------------------------------------------------*/
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
+
+public class NewmanZiff {
+    private static final int BLOCK_TRIALS = 16;  // trials per random stream
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+    private static final double NEGLIGIBLE = 1e-18; // binomial tail cut-off
+
+    private Lattice lattice;                     // sites and neighbors
+    private int sites;                           // sites in the lattice
+    private int[] parent;                        // cluster forest
+    private byte[] flags;                        // boundary flags of roots
+    private int[] order;                         // opening order
+    private long trials;                         // trials run
+    private long[] spanning;                     // trials spanning at n
+    private long[] largest;                      // sum of largest at n
+    private ThresholdAccumulator thresholds;     // opens to first span
+
+    /**************************************************************************
+     * Class constructor method for an empty sweep over a lattice.
+     *************************************************************************/
+    public NewmanZiff(Lattice lattice) {
+        if (lattice.sites() >= Integer.MAX_VALUE)
+            throw new java.lang.IllegalArgumentException("lattice too large");
+        this.lattice = lattice;
+        sites = (int) lattice.sites();
+        parent = new int[sites];
+        flags = new byte[sites];
+        order = new int[sites];
+        spanning = new long[sites + 1];
+        largest = new long[sites + 1];
+        thresholds = new ThresholdAccumulator(sites);
+    }
+
+    /**************************************************************************
+     * Method that runs T trials sweeping a lattice on a pool and returns
+     * their merged curves. Trials are seeded per block from the master
+     * seed, so the result does not depend on the number of threads.
+     *************************************************************************/
+    public static NewmanZiff sweep(Lattice lattice, int T, long seed,
+                                   ForkJoinPool pool) {
+        return sweep(lattice, T, seed, pool, BatchedRandom::new);
+    }
+
+    /**************************************************************************
+     * Method that runs T trials as above, block b drawing from
+     * generators.apply(seed of block b).
+     *************************************************************************/
+    public static NewmanZiff sweep(Lattice lattice, int T, long seed,
+                                   ForkJoinPool pool,
+                                   LongFunction<? extends RandomGenerator> generators) {
+        if (T <= 0)
+            throw new java.lang.IllegalArgumentException("index out of bounds");
+        ConcurrentLinkedQueue<NewmanZiff> idle =
+            new ConcurrentLinkedQueue<NewmanZiff>();
+        NewmanZiff total = new NewmanZiff(lattice);
+        idle.add(total);
+        int blocks = (T - 1) / BLOCK_TRIALS + 1;
+        pool.invoke(new Trials(lattice, idle, T, seed, generators, 0, blocks));
+        for (NewmanZiff worker : idle) {
+            if (worker != total) {
+                total.merge(worker);
+            }
+        }
+        return total;
+    }
+
+    /**************************************************************************
+     * Method that runs one trial, drawing the opening order from random.
+     *************************************************************************/
+    public void trial(RandomGenerator random) {
+        java.util.Arrays.fill(parent, 0);
+        for (int i = 0; i < sites; i++) {
+            order[i] = i;
+        }
+        int biggest = 0;
+        boolean spans = false;
+        for (int n = 1; n <= sites; n++) {
+            int r = n - 1 + random.nextInt(sites - n + 1);
+            int site = order[r];
+            order[r] = order[n - 1];
+            order[n - 1] = site;
+
+            int root = open(site);
+            biggest = Math.max(biggest, -parent[root]);
+            if (!spans && flags[root] == (TOP | BOTTOM)) {
+                spans = true;
+                thresholds.add(n);
+            }
+            if (spans) {
+                spanning[n]++;
+            }
+            largest[n] += biggest;
+        }
+        trials++;
+    }
+
+    /**************************************************************************
+     * Method that adds the trials of another sweep of the same lattice.
+     *************************************************************************/
+    public void merge(NewmanZiff that) {
+        if (that.sites != sites)
+            throw new java.lang.IllegalArgumentException("lattice mismatch");
+        for (int n = 0; n <= sites; n++) {
+            spanning[n] += that.spanning[n];
+            largest[n] += that.largest[n];
+        }
+        trials += that.trials;
+        thresholds.merge(that.thresholds);
+    }
+
+    /**************************************************************************
+     * Method that returns the number of trials run.
+     *************************************************************************/
+    public long trials() {
+        return trials;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of sites in the lattice.
+     *************************************************************************/
+    public int sites() {
+        return sites;
+    }
+
+    /**************************************************************************
+     * Method that returns the sites open at first spanning, one per trial.
+     *************************************************************************/
+    public ThresholdAccumulator thresholds() {
+        return thresholds;
+    }
+
+    /**************************************************************************
+     * Method that returns R(n), the fraction of trials spanning with n
+     * sites open.
+     *************************************************************************/
+    public double spanning(int n) {
+        return (double) spanning[n] / trials;
+    }
+
+    /**************************************************************************
+     * Method that returns S(n), the mean largest cluster with n sites open,
+     * as a fraction of the sites.
+     *************************************************************************/
+    public double largestCluster(int n) {
+        return (double) largest[n] / trials / sites;
+    }
+
+    /**************************************************************************
+     * Method that returns P(p), the probability of spanning when each site
+     * is open with probability p.
+     *************************************************************************/
+    public double spanningProbability(double p) {
+        return convolve(spanning, p) / trials;
+    }
+
+    /**************************************************************************
+     * Method that returns the mean largest cluster, as a fraction of the
+     * sites, when each site is open with probability p.
+     *************************************************************************/
+    public double largestClusterFraction(double p) {
+        return convolve(largest, p) / trials / sites;
+    }
+
+    /**************************************************************************
+     * Helper method that opens a site, joins it to its open neighbors and
+     * returns the root of its cluster.
+     *************************************************************************/
+    private int open(int site) {
+        parent[site] = -1;
+        flags[site] = (byte) ((lattice.isTop(site) ? TOP : 0)
+                              | (lattice.isBottom(site) ? BOTTOM : 0));
+        int root = site;
+        for (int d = 0; d < lattice.directions(); d++) {
+            long q = lattice.neighbor(site, d);
+            if (q >= 0 && parent[(int) q] != 0) {
+                root = union(root, root((int) q));
+            }
+        }
+        return root;
+    }
+
+    /**************************************************************************
+     * Helper method that returns the root of p, splitting the path: each
+     * site on it is pointed at its grandparent.
+     *************************************************************************/
+    private int root(int p) {
+        while (parent[p] > 0) {
+            int up = parent[p] - 1;
+            if (parent[up] > 0) {
+                parent[p] = parent[up];
+            }
+            p = up;
+        }
+        return p;
+    }
+
+    /**************************************************************************
+     * Helper method that joins two roots, the smaller cluster under the
+     * larger, and returns the new root.
+     *************************************************************************/
+    private int union(int r, int s) {
+        if (r == s) {
+            return r;
+        }
+        if (parent[r] > parent[s]) {        // r is the smaller cluster
+            int swap = r;
+            r = s;
+            s = swap;
+        }
+        parent[r] += parent[s];
+        parent[s] = r + 1;
+        flags[r] |= flags[s];
+        return r;
+    }
+
+    /**************************************************************************
+     * Helper method that returns the sum of C(M, n) p^n (1 - p)^(M - n)
+     * values[n]. The weights are built outward from the mode by their
+     * ratios and normalized, and the tails are cut where they are
+     * negligible, so the cost is about sqrt(M) terms.
+     *************************************************************************/
+    private double convolve(long[] values, double p) {
+        if (p <= 0.0) {
+            return values[0];
+        }
+        if (p >= 1.0) {
+            return values[sites];
+        }
+        int mode = (int) Math.min(sites, Math.floor((sites + 1) * p));
+        double odds = p / (1.0 - p);
+        double total = values[mode];
+        double weights = 1.0;
+        double w = 1.0;
+        for (int n = mode + 1; n <= sites && w > NEGLIGIBLE; n++) {
+            w *= (double) (sites - n + 1) / n * odds;
+            total += w * values[n];
+            weights += w;
+        }
+        w = 1.0;
+        for (int n = mode; n > 0 && w > NEGLIGIBLE; n--) {
+            w *= (double) n / (sites - n + 1) / odds;
+            total += w * values[n - 1];
+            weights += w;
+        }
+        return total / weights;
+    }
+
+    /**************************************************************************
+     * Fork-join task that splits a range of blocks in halves down to single
+     * blocks, each run on an idle sweep.
+     *************************************************************************/
+    private static class Trials extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private Lattice lattice;
+        private ConcurrentLinkedQueue<NewmanZiff> idle;
+        private int T;                       // trials in the whole run
+        private long seed;                   // master seed
+        private LongFunction<? extends RandomGenerator> generators;
+        private int lo, hi;                  // blocks lo through hi - 1
+
+        public Trials(Lattice lattice, ConcurrentLinkedQueue<NewmanZiff> idle,
+                      int T, long seed,
+                      LongFunction<? extends RandomGenerator> generators,
+                      int lo, int hi) {
+            this.lattice = lattice;
+            this.idle = idle;
+            this.T = T;
+            this.seed = seed;
+            this.generators = generators;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Trials(lattice, idle, T, seed, generators,
+                                     lo, mid),
+                          new Trials(lattice, idle, T, seed, generators,
+                                     mid, hi));
+                return;
+            }
+            NewmanZiff worker = idle.poll();
+            if (worker == null) {
+                worker = new NewmanZiff(lattice);
+            }
+            RandomGenerator random =
+                generators.apply(BatchedRandom.mix64(seed, lo));
+            int last = (int) Math.min(T, (long) (lo + 1) * BLOCK_TRIALS);
+            for (int t = lo * BLOCK_TRIALS; t < last; t++) {
+                worker.trial(random);
+            }
+            idle.offer(worker);
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test microcanonical curves of a one-site lattice
+        StdOut.print("Test one site: ");
+        NewmanZiff one = sweep(new SquareLattice(1), 5, 1L,
+                               ForkJoinPool.commonPool());
+        if (one.trials() == 5 && one.spanning(0) == 0.0
+                && one.spanning(1) == 1.0 && one.largestCluster(1) == 1.0
+                && one.spanningProbability(0.25) == 0.25
+                && one.largestClusterFraction(0.75) == 0.75) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test that the curves are full and monotone
+        StdOut.print("Test curves: ");
+        NewmanZiff grid = sweep(new SquareLattice(32), 200, 7L,
+                                ForkJoinPool.commonPool());
+        boolean monotone = grid.spanning(grid.sites()) == 1.0
+                           && grid.largestCluster(grid.sites()) == 1.0;
+        for (int n = 1; n <= grid.sites(); n++) {
+            monotone &= grid.spanning(n) >= grid.spanning(n - 1)
+                        && grid.largestCluster(n) >= grid.largestCluster(n - 1);
+        }
+        if (monotone && grid.spanningProbability(0.4) < 0.01
+                && grid.spanningProbability(0.8) > 0.99
+                && grid.largestClusterFraction(1.0) == 1.0) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test that an injected generator reproduces a run, and is used
+        StdOut.print("Test injected generator: ");
+        NewmanZiff batched = sweep(new SquareLattice(16), 40, 3L,
+                                   ForkJoinPool.commonPool());
+        NewmanZiff same = sweep(new SquareLattice(16), 40, 3L,
+                                new ForkJoinPool(2), BatchedRandom::new);
+        NewmanZiff split = sweep(new SquareLattice(16), 40, 3L,
+                                 ForkJoinPool.commonPool(),
+                                 java.util.SplittableRandom::new);
+        if (same.thresholds().mean() == batched.thresholds().mean()
+                && same.spanning(128) == batched.spanning(128)
+                && split.thresholds().mean() != batched.thresholds().mean()) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test that the thresholds agree with PercolationStats
+        StdOut.print("Test thresholds: ");
+        PercolationStats stats = new PercolationStats(
+            () -> new Percolation(new SquareLattice(32)), 200, 8L,
+            ForkJoinPool.commonPool());
+        double mean = grid.thresholds().mean() / grid.sites();
+        double error = Math.hypot(stats.halfWidth(),
+                                  1.96 * grid.thresholds().stddev()
+                                  / grid.sites() / Math.sqrt(200.0));
+        if (grid.thresholds().count() == 200
+                && Math.abs(mean - stats.mean()) < 2 * error) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}
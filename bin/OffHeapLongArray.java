@@ -0,0 +1,110 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac OffHeapLongArray.java
+ *
+ * Defines a long array of up to 2^63 entries that lives outside the Java
+ * heap, so very large grids neither count against -Xmx nor get scanned
+ * or copied by the garbage collector.
+ *
+ * The array is split into chunks of 2^27 longs (1 GB), since a single
+ * buffer is limited to 2 GB. Each chunk is either a direct buffer or a
+ * read-write mapping of a file. Both start out all zero. The memory is
+ * released when the array becomes unreachable.
+ *
+ * A file is scratch space: it is deleted as soon as it has been mapped.
+ * The mapping keeps its pages until the array is unreachable, and nothing
+ * is left on disk afterwards, even if the process dies.
+ *---------------------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class OffHeapLongArray {
+    private static final int CHUNK_SHIFT = 27;               // longs per chunk
+    private static final int CHUNK_SIZE  = 1 << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private LongBuffer[] chunks; // storage, CHUNK_SIZE longs each
+    private long length;         // number of entries
+
+    /**************************************************************************
+     * Class constructor method which allocates direct memory.
+     *************************************************************************/
+    public OffHeapLongArray(long length) {
+        this(length, null);
+    }
+
+    /**************************************************************************
+     * Class constructor method which maps the array onto a file, or
+     * allocates direct memory if file is null. An existing file is
+     * truncated, so the array always starts out all zero, and the file is
+     * deleted once mapped, so pass a new file such as
+     * Files.createTempFile makes.
+     *************************************************************************/
+    public OffHeapLongArray(long length, Path file) {
+        if (length < 0)
+            throw new java.lang.IllegalArgumentException("negative length");
+        this.length = length;
+        int count = (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        chunks = new LongBuffer[count];
+        if (file == null) {
+            for (int c = 0; c < count; c++) {
+                chunks[c] = ByteBuffer.allocateDirect(8 * chunkLength(c))
+                                      .order(ByteOrder.nativeOrder())
+                                      .asLongBuffer();
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.DELETE_ON_CLOSE)) {
+            for (int c = 0; c < count; c++) {
+                long offset = 8L * c * CHUNK_SIZE;
+                chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE,
+                                        offset, 8L * chunkLength(c))
+                                   .order(ByteOrder.nativeOrder())
+                                   .asLongBuffer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**************************************************************************
+     * Method that returns the number of entries.
+     *************************************************************************/
+    public long length() {
+        return length;
+    }
+
+    /**************************************************************************
+     * Method that returns the entry at index i.
+     *************************************************************************/
+    public long get(long i) {
+        return chunks[(int) (i >>> CHUNK_SHIFT)].get((int) (i & CHUNK_MASK));
+    }
+
+    /**************************************************************************
+     * Method that sets the entry at index i.
+     *************************************************************************/
+    public void set(long i, long value) {
+        chunks[(int) (i >>> CHUNK_SHIFT)].put((int) (i & CHUNK_MASK), value);
+    }
+
+    /**************************************************************************
+     * Helper method that returns the number of longs in chunk c.
+     *************************************************************************/
+    private int chunkLength(int c) {
+        return (int) Math.min(CHUNK_SIZE, length - ((long) c << CHUNK_SHIFT));
+    }
+}
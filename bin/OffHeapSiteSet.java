@@ -0,0 +1,74 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac OffHeapSiteSet.java
+ *
+ * Defines a SiteSet kept in an OffHeapLongArray, in direct memory or in
+ * a memory-mapped file.
+ *---------------------------------------------------------------------------*/
+
+import java.nio.file.Path;
+
+public class OffHeapSiteSet implements SiteSet {
+    private OffHeapLongArray bits; // one bit per site
+
+    /**************************************************************************
+     * Class constructor method which creates an empty set of n sites in
+     * direct memory.
+     *************************************************************************/
+    public OffHeapSiteSet(long n) {
+        this(n, null);
+    }
+
+    /**************************************************************************
+     * Class constructor method which creates an empty set of n sites in a
+     * memory-mapped file, or in direct memory if file is null.
+     *************************************************************************/
+    public OffHeapSiteSet(long n, Path file) {
+        bits = new OffHeapLongArray((n + 63) >>> 6, file);
+    }
+
+    /**************************************************************************
+     * Method that says if a site is in the set.
+     *************************************************************************/
+    public boolean contains(long site) {
+        return (bits.get(site >>> 6) & (1L << site)) != 0;
+    }
+
+    /**************************************************************************
+     * Method that adds a site to the set.
+     *************************************************************************/
+    public void add(long site) {
+        long w = site >>> 6;
+        bits.set(w, bits.get(w) | (1L << site));
+    }
+
+    /**************************************************************************
+     * Method that returns the number of 64-bit words.
+     *************************************************************************/
+    public long words() {
+        return bits.length();
+    }
+
+    /**************************************************************************
+     * Method that returns word w.
+     *************************************************************************/
+    public long word(long w) {
+        return bits.get(w);
+    }
+
+    /**************************************************************************
+     * Method that replaces word w.
+     *************************************************************************/
+    public void setWord(long w, long word) {
+        bits.set(w, word);
+    }
+
+    /**************************************************************************
+     * Method that removes every site in word w.
+     *************************************************************************/
+    public void clearWord(long w) {
+        bits.set(w, 0);
+    }
+}
@@ -0,0 +1,136 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac OffHeapUnionFind.java
+ *
+ * Defines a union-find engine kept in an OffHeapLongArray, for grids
+ * whose parent array does not fit comfortably on the heap.
+ *
+ * Uses the same encoding as RankedUnionFind, widened to longs:
+ *   entry >  0    the element is linked to parent (entry - 1)
+ *   entry <= 0    the element is a root, and -entry holds its rank
+ *                 shifted left by two over the component's two flag bits
+ *---------------------------------------------------------------------------*/
+
+import java.nio.file.Path;
+
+public class OffHeapUnionFind implements UnionFind {
+    private static final int RANK_SHIFT = 2; // rank sits above the flags
+
+    private OffHeapLongArray parent; // links and roots, see encoding above
+
+    /**************************************************************************
+     * Class constructor method which creates n singleton components in
+     * direct memory.
+     *************************************************************************/
+    public OffHeapUnionFind(long n) {
+        this(n, null);
+    }
+
+    /**************************************************************************
+     * Class constructor method which creates n singleton components in a
+     * memory-mapped file, or in direct memory if file is null.
+     *************************************************************************/
+    public OffHeapUnionFind(long n, Path file) {
+        parent = new OffHeapLongArray(n, file);
+    }
+
+    /**************************************************************************
+     * Method that returns the number of elements.
+     *************************************************************************/
+    public long size() {
+        return parent.length();
+    }
+
+    /**************************************************************************
+     * Method that returns the root of the component containing p.
+     *************************************************************************/
+    public long find(long p) {
+        return root(p);
+    }
+
+    /**************************************************************************
+     * Method that merges the components containing p and q, by rank.
+     *************************************************************************/
+    public long union(long p, long q) {
+        long rootP = root(p);
+        long rootQ = root(q);
+        if (rootP == rootQ) {
+            return rootP;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.union();
+        }
+        long stateP = -parent.get(rootP);
+        long stateQ = -parent.get(rootQ);
+        long flags = (stateP | stateQ) & FLAG_MASK;
+        long rankP = stateP >>> RANK_SHIFT;
+        long rankQ = stateQ >>> RANK_SHIFT;
+        if (rankP < rankQ) {
+            parent.set(rootP, rootQ + 1);
+            parent.set(rootQ, -((rankQ << RANK_SHIFT) | flags));
+            return rootQ;
+        }
+        if (rankP == rankQ) {
+            rankP++;
+        }
+        parent.set(rootQ, rootP + 1);
+        parent.set(rootP, -((rankP << RANK_SHIFT) | flags));
+        return rootP;
+    }
+
+    /**************************************************************************
+     * Method that says whether p and q are in the same component.
+     *************************************************************************/
+    public boolean connected(long p, long q) {
+        return root(p) == root(q);
+    }
+
+    /**************************************************************************
+     * Method that returns the flags of the component containing p.
+     *************************************************************************/
+    public int flags(long p) {
+        return (int) (-parent.get(root(p)) & FLAG_MASK);
+    }
+
+    /**************************************************************************
+     * Method that adds flags to the component containing p.
+     *************************************************************************/
+    public int mark(long p, int flags) {
+        long root = root(p);
+        long state = -parent.get(root) | (flags & FLAG_MASK);
+        parent.set(root, -state);
+        return (int) (state & FLAG_MASK);
+    }
+
+    /**************************************************************************
+     * Method that makes p a singleton root of rank 0 with no flags.
+     *************************************************************************/
+    public void reset(long p) {
+        parent.set(p, 0);
+    }
+
+    /**************************************************************************
+     * Helper method that finds the root of p with path halving.
+     *************************************************************************/
+    private long root(long p) {
+        long next;
+        int steps = 0;                  // links followed, for Metrics
+        while ((next = parent.get(p)) > 0) {
+            long grand = parent.get(next - 1);
+            if (grand <= 0) {
+                p = next - 1;
+                steps++;
+                break;
+            }
+            parent.set(p, grand);
+            p = grand - 1;
+            steps += 2;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.find(steps);
+        }
+        return p;
+    }
+}
@@ -1,7 +1,7 @@
 /*-----------------------------------------------------------------------------
  * Author:        Mark Johnson
  * Written:       8/22/2012
- * Last Updated:  8/26/2012
+ * Last Updated:  10/18/2026
  *
  * Compilation:   javac Percolation.java
  * Execution:     java Percolation
@@ -9,146 +9,632 @@
  * Defines a Percolation type, which has a grid, and methods that
  * allow us to measure when the grid percolates.
  *
+ * The grid is N-by-N square by default, with hardcoded neighbor code.
+ * Any other Lattice can be given instead; its sites are then opened and
+ * queried by 1D index only, through a generic neighbor loop.
+ *
  *---------------------------------------------------------------------------*/
 
-public class Percolation {
-    private WeightedQuickUnionUF grid; // grid of sites
-    private int dimension;             // grid dimensions
-    private boolean[] siteStatus;      // open/blocked sites
-    private int virtualTopIndex;       // array index of virtual top
-    private int virtualBottomIndex;    // array index of virtual bottom   
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+public class Percolation implements PercolationModel {
+    private static final int TOP    = 1; // component touches the top row
+    private static final int BOTTOM = 2; // component touches the bottom row
+    static final int FILL_WORDS = 1024;  // words per random fill task
+
+    private UnionFind grid;            // grid of sites
+    private int dimension;             // grid dimensions, 0 off the square
+    private Lattice lattice;           // non-square lattice, or null
+    private long sites;                // number of sites
+    private SiteSet openSites;         // open/blocked sites, one bit each
+    private long openCount;            // number of open sites
+    private boolean percolates;        // some component touches both rows
 
     /**************************************************************************
-     * Class constructor method which sets all sites to blocked (false),
-     * connects the sites in the virtual bottom to eachother,
-     * and connects the sites in the virtual top to eachother.
+     * Class constructor method which sets all sites to blocked.
+     * Sites are stored one bit per site in 64-bit words, so a freshly
+     * allocated set is already all blocked and needs no initialization.
      *
-     * Updated virtuals, don't need to initialize old virtual top or bottom.
+     * Site indices are computed as longs so N*N can not silently overflow.
+     * Uses the default union-find engine, RankedUnionFind, on the heap.
      *************************************************************************/
     public Percolation(int N) { // create N-by-N grid, with all sites blocked
-                                // What do we do if N equals 1?
-        if (N < 1)
-            throw new java.lang.IllegalArgumentException("index out of bounds");
-        dimension     = N;
-        grid          = new WeightedQuickUnionUF((dimension*dimension) + 2);
-        siteStatus    = new boolean[dimension * dimension];
-        virtualTopIndex = dimension * dimension;
-        virtualBottomIndex = (dimension * dimension) + 1;
+        this(N, RankedUnionFind::new, HeapSiteSet::new);
+    }
 
-        // initialize grid sites to blocked
-        for (int i = 0; i < (dimension*dimension); i++) {
-            siteStatus[i] = false;
-        }
+    /**************************************************************************
+     * Class constructor method which takes the union-find engine to use,
+     * keeping the open sites on the heap.
+     *************************************************************************/
+    public Percolation(int N, LongFunction<UnionFind> engine) {
+        this(N, engine, HeapSiteSet::new);
+    }
+
+    /**************************************************************************
+     * Class constructor method which takes the union-find engine and the
+     * open-site store to use. Both are created with room for the N*N sites,
+     * and reject grids that they can not address.
+     *
+     * There are no virtual top and bottom sites. Instead each component
+     * carries TOP and BOTTOM flags in the union-find, so a bottom site is
+     * never reported full through a shared virtual bottom (backwash).
+     *************************************************************************/
+    public Percolation(int N, LongFunction<UnionFind> engine,
+                       LongFunction<SiteSet> store) {
+        this(new SquareLattice(N), engine, store);
+    }
 
-        // initialize virtual top
-        //for (int i = 1; i < dimension; i++) {
-        //    grid.union(0, i);
-        //}
+    /**************************************************************************
+     * Class constructor method for site percolation on any lattice, with
+     * the default engine on the heap.
+     *************************************************************************/
+    public Percolation(Lattice lattice) {
+        this(lattice, RankedUnionFind::new, HeapSiteSet::new);
+    }
 
-        // initialize virtual bottom
-        //int lastRowFirstColumn = xyTo1D(dimension, 1);
-        //for (int i = 1; i < dimension; i++) {
-        //    grid.union(lastRowFirstColumn, lastRowFirstColumn + i); // ??
-        //}
+    /**************************************************************************
+     * Class constructor method for site percolation on any lattice.
+     * A SquareLattice gets the hardcoded square code, so it runs exactly
+     * as fast as the N-by-N constructors.
+     *************************************************************************/
+    public Percolation(Lattice lattice, LongFunction<UnionFind> engine,
+                       LongFunction<SiteSet> store) {
+        if (lattice instanceof SquareLattice) {
+            dimension    = ((SquareLattice) lattice).width();
+            this.lattice = null;
+        } else {
+            dimension    = 0;
+            this.lattice = lattice;
+        }
+        sites      = lattice.sites();
+        grid       = engine.apply(sites);
+        openSites  = store.apply(sites);
+        openCount  = 0;
+        percolates = false;
     }
 
     /**************************************************************************
-     * Method that opens a given site and connects to open neighbors.
-     * No changes necessary when making row N+1 into virtual top?
+     * Method that creates a grid kept entirely off the heap: the union-find
+     * and the open sites live in memory-mapped files in directory, or in
+     * direct memory if directory is null. Either way multi-GB arrays stay
+     * away from the garbage collector, but only the mapped files are
+     * bounded by disk rather than by the heap: direct memory is capped by
+     * -XX:MaxDirectMemorySize, which defaults to the -Xmx heap size, so a
+     * grid larger than the heap needs a directory or a larger cap.
      *
-     * If you connect a site in row 1, you must connect it to virtual top site.
-     * Virtual top site will be index N.
-     * If you connect a site in row N, you must connect it to virtual bottom
-     * site. Virtual bottom site will be index N*N.
-     *
-     * I believe when a site in the bottome row is added, it doesn't get 
-     * connected to the virtual bottom.
+     * Each grid gets its own newly created files, so any number of grids,
+     * in any threads or processes, can share one directory.
+     *************************************************************************/
+    public static Percolation offHeap(int N, Path directory) {
+        if (directory == null) {
+            return new Percolation(N, OffHeapUnionFind::new,
+                                   OffHeapSiteSet::new);
+        }
+        return new Percolation(N,
+            n -> new OffHeapUnionFind(n, scratchFile(directory, N, ".uf")),
+            n -> new OffHeapSiteSet(n, scratchFile(directory, N, ".sites")));
+    }
+
+    /**************************************************************************
+     * Helper method that creates a new, uniquely named file in directory
+     * for one off-heap array of an N-by-N grid.
+     *************************************************************************/
+    private static Path scratchFile(Path directory, int N, String suffix) {
+        try {
+            return Files.createTempFile(directory, "percolation-" + N + "-",
+                                        suffix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**************************************************************************
+     * Method that blocks every site again, so the instance can be reused
+     * for another trial without allocating.
      *
-     * Need to debug this open function. It is not working correctly.
+     * Only sites that were opened have been touched in the union-find, so
+     * the bitmap is scanned a word at a time and only its set bits are
+     * reset. Blocked words cost one read each.
+     *************************************************************************/
+    public void reset() {
+        if (openCount > 0) {
+            long words = openSites.words();
+            for (long w = 0; w < words; w++) {
+                long word = openSites.word(w);
+                if (word != 0) {
+                    openSites.clearWord(w);
+                    long base = w << 6;
+                    while (word != 0) {
+                        grid.reset(base + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;       // clear lowest set bit
+                    }
+                }
+            }
+        }
+        openCount  = 0;
+        percolates = false;
+    }
+
+    /**************************************************************************
+     * Method that opens a given site and connects to open neighbors.
+     * The row and column are validated once here; everything below
+     * works on unchecked 1D indices.
      *************************************************************************/
     public void open(int i, int j) {
+        requireSquare();
         if ((i < 1) || (i > dimension) || (j < 1) || (j > dimension))
             throw new java.lang.IndexOutOfBoundsException("index out of bounds");
-        int gridIndex = xyTo1D(i, j);
-        if (!siteStatus[gridIndex]) {
-            siteStatus[gridIndex] = true;
-            connectToNeighbors(i, j);
-            if (i == 1) {                                   // join site to
-                grid.union(gridIndex, virtualTopIndex);     // virtual top 
-            } else if (i == dimension) {                    // and bottom
-                grid.union(gridIndex, virtualBottomIndex);
+        openSite(xyTo1D(i, j), i, j);
+    }
+
+    /**************************************************************************
+     * Method that opens the site at a 1D index. On the square grid this
+     * is row-major from 0, so site (i, j) is at index N*(i - 1) + (j - 1).
+     *************************************************************************/
+    public void open(long site) {
+        if ((site < 0) || (site >= sites))
+            throw new java.lang.IndexOutOfBoundsException("index out of bounds");
+        openIndex(site);
+    }
+
+    /**************************************************************************
+     * Method that opens every site in a batch of 1D indices.
+     * The whole batch is validated up front, so the opening loop itself
+     * does no range checks.
+     *************************************************************************/
+    public void openAll(int[] batch) {
+        for (int k = 0; k < batch.length; k++) {
+            if ((batch[k] < 0) || (batch[k] >= sites))
+                throw new java.lang.IndexOutOfBoundsException("index out of bounds");
+        }
+        if (lattice != null) {
+            for (int k = 0; k < batch.length; k++) {
+                openLatticeSite(batch[k]);
+            }
+            return;
+        }
+        for (int k = 0; k < batch.length; k++) {
+            int site = batch[k];
+            int row = site / dimension;
+            openSite(site, row + 1, site - row * dimension + 1);
+        }
+    }
+
+    /**************************************************************************
+     * Method that opens sites in the given order, as 1D indices, until the
+     * system percolates, and returns the number of open sites at that
+     * moment. Returns -1 if the order runs out first. Sites already open
+     * are skipped and do not count.
+     *
+     * The order is validated once up front. After that, percolation is
+     * checked through the flags of the one component each open creates,
+     * with no percolates() call per step.
+     *************************************************************************/
+    public long openUntilPercolates(int[] order) {
+        for (int k = 0; k < order.length; k++) {
+            if ((order[k] < 0) || (order[k] >= sites))
+                throw new java.lang.IndexOutOfBoundsException("index out of bounds");
+        }
+        if (percolates) {
+            return openCount;
+        }
+        if (lattice != null) {
+            for (int k = 0; k < order.length; k++) {
+                if (openLatticeSite(order[k])) {
+                    return openCount;
+                }
+            }
+            return -1;
+        }
+        for (int k = 0; k < order.length; k++) {
+            int site = order[k];
+            int row = site / dimension;
+            if (openSite(site, row + 1, site - row * dimension + 1)) {
+                return openCount;
+            }
+        }
+        return -1;
+    }
+
+    /**************************************************************************
+     * Method that opens sites drawn from a generator of 1D indices until
+     * the system percolates, and returns the number of open sites at that
+     * moment. Draws of sites already open are skipped. The generator must
+     * eventually cover the grid, or this will not return.
+     *************************************************************************/
+    public long openUntilPercolates(LongSupplier order) {
+        while (!percolates) {
+            long site = order.getAsLong();
+            if ((site < 0) || (site >= sites))
+                throw new java.lang.IndexOutOfBoundsException("index out of bounds");
+            openIndex(site);
+        }
+        return openCount;
+    }
+
+    /**************************************************************************
+     * Method that blocks every site, then opens each site independently with
+     * probability p, using the common fork-join pool.
+     *************************************************************************/
+    public void openRandom(double p, long seed) {
+        openRandom(p, seed, ForkJoinPool.commonPool());
+    }
+
+    /**************************************************************************
+     * Method that blocks every site, then opens each site independently with
+     * probability p, using all threads of pool. Works in three passes:
+     *
+     *   1. Fill the bitmap in parallel, FILL_WORDS words per task. Each
+     *      task draws from its own stream derived from seed and the task
+     *      number, so the grid depends only on p and seed.
+     *   2. Label horizontal strips in parallel. Each strip unions only
+     *      sites inside itself, so strips touch disjoint union-find
+     *      entries and need no locking.
+     *   3. Merge the strip boundaries, one row pair per strip, on the
+     *      calling thread, then check the top row for a component that
+     *      touches both rows.
+     *************************************************************************/
+    public void openRandom(double p, long seed, ForkJoinPool pool) {
+        if (!(p >= 0.0 && p <= 1.0))
+            throw new java.lang.IllegalArgumentException("p not in [0, 1]");
+        reset();
+        long words = openSites.words();
+        int fills = (int) ((words + FILL_WORDS - 1) / FILL_WORDS);
+        long[] opened = new long[fills];
+        forEachTask(pool, fills, task -> {
+            SplittableRandom random =
+                new SplittableRandom(BatchedRandom.mix64(seed, task));
+            long first = (long) task * FILL_WORDS;
+            long last = Math.min(words, first + FILL_WORDS);
+            long count = 0;
+            for (long w = first; w < last; w++) {
+                int bits = (int) Math.min(64, sites - (w << 6));
+                long word = 0;
+                for (int b = 0; b < bits; b++) {
+                    if (random.nextDouble() < p) {
+                        word |= 1L << b;
+                    }
+                }
+                openSites.setWord(w, word);
+                count += Long.bitCount(word);
+            }
+            opened[task] = count;
+        });
+        for (int task = 0; task < fills; task++) {
+            openCount += opened[task];
+        }
+        if (Metrics.ENABLED) {
+            Metrics.open(openCount);
+        }
+        if (lattice != null) {
+            labelLattice();
+            return;
+        }
+
+        int strips = Math.min(dimension, 4 * pool.getParallelism());
+        forEachTask(pool, strips, strip ->
+            labelRows(stripStart(strip, strips), stripStart(strip + 1, strips)));
+        for (int strip = 1; strip < strips; strip++) {
+            long below = xyTo1D(stripStart(strip, strips) + 1, 1);
+            for (int column = 0; column < dimension; column++) {
+                long site = below + column;
+                if (isOpenUnchecked(site) && isOpenUnchecked(site - dimension)) {
+                    grid.union(site, site - dimension);
+                }
+            }
+        }
+        for (long site = 0; site < dimension && !percolates; site++) {
+            if (isOpenUnchecked(site) && grid.flags(site) == (TOP | BOTTOM)) {
+                percolates = true;
             }
         }
     }
 
     /**************************************************************************
      * Method that says if a given site is open.
-     * No changes necessary.
      *************************************************************************/
     public boolean isOpen(int i, int j) {
+        requireSquare();
         if ((i < 1) || (i > dimension) || (j < 1) || (j > dimension))
             throw new java.lang.IndexOutOfBoundsException("invalid index");
-        int gridIndex = xyTo1D(i, j);
-        return siteStatus[gridIndex];
+        return isOpenUnchecked(xyTo1D(i, j));
     }
 
     /**************************************************************************
      * Method that says if a given site is connected to the top.
-     * Change to check if gridIndex is connected to new virtual top.
+     * Only the TOP flag of the site's component counts, so there is
+     * no backwash from the bottom row.
      *************************************************************************/
     public boolean isFull(int i, int j) {
+        requireSquare();
         if ((i < 1) || (i > dimension) || (j < 1) || (j > dimension))
             throw new java.lang.IndexOutOfBoundsException("invalid index");
-        int gridIndex = xyTo1D(i, j);
-        if (isOpen(i, j)) {
-            return grid.connected(gridIndex, virtualTopIndex); // virt top 
+        long gridIndex = xyTo1D(i, j);
+        if (isOpenUnchecked(gridIndex)) {
+            return (grid.flags(gridIndex) & TOP) != 0;
         } else {
             return false;
         }
     }
 
+    /**************************************************************************
+     * Method that says if the site at a 1D index is open.
+     *************************************************************************/
+    public boolean isOpen(long site) {
+        if ((site < 0) || (site >= sites))
+            throw new java.lang.IndexOutOfBoundsException("invalid index");
+        return isOpenUnchecked(site);
+    }
+
+    /**************************************************************************
+     * Method that says if the site at a 1D index is connected to the top.
+     *************************************************************************/
+    public boolean isFull(long site) {
+        if ((site < 0) || (site >= sites))
+            throw new java.lang.IndexOutOfBoundsException("invalid index");
+        return isOpenUnchecked(site) && (grid.flags(site) & TOP) != 0;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of sites.
+     *************************************************************************/
+    public long elements() {
+        return sites;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of 1D indices, the same as elements().
+     *************************************************************************/
+    public long indices() {
+        return sites;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of open sites.
+     *************************************************************************/
+    public long numberOfOpenSites() {
+        return openCount;
+    }
+
     /**************************************************************************
      * Method that says whether the system currently percolates.
-     * Change to check if the virtual bottom is connected to the virtual top.
-     * What the fuck is this shit? 
+     * Constant time: the flag is set by open.
      *************************************************************************/
     public boolean percolates() {
-        if (dimension == 1) {
-            return isOpen(1, 1);
-        } else {
-            return grid.connected(virtualBottomIndex, virtualTopIndex);
-        }
+        return percolates;
+    }
+
+    /**************************************************************************
+     * Method that says if the site at a 1D index is open, without checking
+     * the index. For simulation drivers that generate valid indices.
+     *************************************************************************/
+    boolean isOpenUnchecked(long site) {
+        return openSites.contains(site);
     }
 
     /**************************************************************************
      * Helper method: converts site location from (row,column) to a 1D index.
+     * The index is a long, so large grids do not overflow.
+     * Callers have already validated the row and column.
      *************************************************************************/
-    private int xyTo1D(int i, int j) {
-        if ((i < 1) || (i > dimension) || (j < 1) || (j > dimension))
-            throw new java.lang.IndexOutOfBoundsException("index out of bounds");
-        return dimension*(i - 1) + (j-1);
+    private long xyTo1D(int i, int j) {
+        return (long) dimension * (i - 1) + (j - 1);
     }
 
     /**************************************************************************
-     * Helper method that connects (row i, column j) to all open neighbors.
+     * Helper method that throws if the grid is not the N-by-N square, since
+     * (row, column) addressing only applies there.
      *************************************************************************/
-    private void connectToNeighbors(int row, int column) {
-        if ((row < 1) || (row > dimension) || (column < 1) || (column > dimension))
-            throw new java.lang.IndexOutOfBoundsException("index out of bounds");
-        int location = xyTo1D(row, column);
+    private void requireSquare() {
+        if (lattice != null)
+            throw new java.lang.UnsupportedOperationException(
+                "use 1D site indices on this lattice");
+    }
 
-        if (row != 1 && isOpen(row - 1, column)) {
-            grid.union(location, location - dimension);
+    /**************************************************************************
+     * Helper method that opens a validated 1D index on whichever lattice
+     * this is, and returns whether the system percolates afterwards.
+     *************************************************************************/
+    private boolean openIndex(long site) {
+        if (lattice != null) {
+            return openLatticeSite(site);
         }
-        if (row != dimension && isOpen(row + 1, column)) {
-            grid.union(location, location + dimension);
+        int row = (int) (site / dimension);
+        return openSite(site, row + 1, (int) (site - (long) row * dimension) + 1);
+    }
+
+    /**************************************************************************
+     * Helper method that opens a validated site of a non-square lattice and
+     * connects it to its open neighbors, one direction at a time.
+     * Returns whether the system percolates afterwards.
+     *************************************************************************/
+    private boolean openLatticeSite(long site) {
+        if (isOpenUnchecked(site)) {
+            if (Metrics.ENABLED) {
+                Metrics.reject();
+            }
+            return percolates;
+        }
+        openSites.add(site);
+        openCount++;
+        if (Metrics.ENABLED) {
+            Metrics.open();
         }
-        if (column != 1 && isOpen(row, column - 1)) {
-            grid.union(location, location -1);
+        int flags = 0;
+        if (lattice.isTop(site)) {
+            flags |= TOP;
         }
-        if (column != dimension && isOpen(row, column + 1)) {
-            grid.union(location, location + 1);
+        if (lattice.isBottom(site)) {
+            flags |= BOTTOM;
         }
+        if (flags != 0) {
+            grid.mark(site, flags);
+        }
+        long root = site;
+        int directions = lattice.directions();
+        for (int d = 0; d < directions; d++) {
+            long neighbor = lattice.neighbor(site, d);
+            if (neighbor >= 0 && isOpenUnchecked(neighbor)) {
+                root = grid.union(site, neighbor);
+            }
+        }
+        if (grid.flags(root) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+        return percolates;
+    }
+
+    /**************************************************************************
+     * Helper method that labels a filled non-square lattice on the calling
+     * thread: flags boundary sites, unions each open site with its open
+     * forward neighbors, then looks for a component touching both rows.
+     *************************************************************************/
+    private void labelLattice() {
+        int forward = lattice.directions() / 2;
+        for (long site = 0; site < sites; site++) {
+            if (!isOpenUnchecked(site)) {
+                continue;
+            }
+            if (lattice.isTop(site)) {
+                grid.mark(site, TOP);
+            }
+            if (lattice.isBottom(site)) {
+                grid.mark(site, BOTTOM);
+            }
+            for (int d = 0; d < forward; d++) {
+                long neighbor = lattice.neighbor(site, d);
+                if (neighbor >= 0 && isOpenUnchecked(neighbor)) {
+                    grid.union(site, neighbor);
+                }
+            }
+        }
+        for (long site = 0; site < sites && !percolates; site++) {
+            if (isOpenUnchecked(site) && lattice.isTop(site)
+                    && grid.flags(site) == (TOP | BOTTOM)) {
+                percolates = true;
+            }
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that opens a validated site at (row, column), which is
+     * at 1D index site, and connects it to its open neighbors.
+     *
+     * A site in row 1 flags its component TOP, and a site in row N flags
+     * it BOTTOM. Flags are merged on union, so once the new component has
+     * both flags the system percolates. Only the root of the new component
+     * is checked, which costs no find.
+     *
+     * Returns whether the system percolates afterwards.
+     *************************************************************************/
+    private boolean openSite(long site, int row, int column) {
+        if (isOpenUnchecked(site)) {
+            if (Metrics.ENABLED) {
+                Metrics.reject();
+            }
+            return percolates;
+        }
+        openSites.add(site);
+        openCount++;
+        if (Metrics.ENABLED) {
+            Metrics.open();
+        }
+        int flags = 0;
+        if (row == 1) {                                // touches top
+            flags |= TOP;
+        }
+        if (row == dimension) {                        // touches bottom
+            flags |= BOTTOM;
+        }
+        if (flags != 0) {
+            grid.mark(site, flags);
+        }
+        long root = connectToNeighbors(site, row, column);
+        if (grid.flags(root) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+        return percolates;
+    }
+
+    /**************************************************************************
+     * Helper method that unions the open sites of rows first + 1 through
+     * last, counting from 1, with their open neighbors in the same rows, and
+     * flags the top and bottom rows. Touches no site outside those rows.
+     *************************************************************************/
+    private void labelRows(int first, int last) {
+        for (int row = first + 1; row <= last; row++) {
+            long start = xyTo1D(row, 1);
+            for (int column = 1; column <= dimension; column++) {
+                long site = start + column - 1;
+                if (!isOpenUnchecked(site)) {
+                    continue;
+                }
+                if (row == 1) {
+                    grid.mark(site, TOP);
+                }
+                if (row == dimension) {
+                    grid.mark(site, BOTTOM);
+                }
+                if (column != dimension && isOpenUnchecked(site + 1)) {
+                    grid.union(site, site + 1);
+                }
+                if (row != last && isOpenUnchecked(site + dimension)) {
+                    grid.union(site, site + dimension);
+                }
+            }
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that returns the number of rows before strip s of
+     * strips equal strips.
+     *************************************************************************/
+    private int stripStart(int s, int strips) {
+        return (int) ((long) dimension * s / strips);
+    }
+
+    /**************************************************************************
+     * Helper method that runs body for tasks 0 through count - 1 on pool
+     * and waits for all of them.
+     *************************************************************************/
+    private static void forEachTask(ForkJoinPool pool, int count,
+                                    IntConsumer body) {
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[count];
+        for (int t = 0; t < count; t++) {
+            int task = t;
+            tasks[t] = ForkJoinTask.adapt(() -> body.accept(task));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**************************************************************************
+     * Helper method that connects (row, column), at 1D index location,
+     * to all open neighbors, and returns the root of its component.
+     *************************************************************************/
+    private long connectToNeighbors(long location, int row, int column) {
+        long root = location;
+        if (row != 1 && isOpenUnchecked(location - dimension)) {
+            root = grid.union(location, location - dimension);
+        }
+        if (row != dimension && isOpenUnchecked(location + dimension)) {
+            root = grid.union(location, location + dimension);
+        }
+        if (column != 1 && isOpenUnchecked(location - 1)) {
+            root = grid.union(location, location - 1);
+        }
+        if (column != dimension && isOpenUnchecked(location + 1)) {
+            root = grid.union(location, location + 1);
+        }
+        return root;
     }
 
     public static void main(String[] args) {
@@ -193,6 +679,11 @@ public class Percolation {
         if (x.percolates())
             StdOut.println("\tpercolates passed");
 
+        // test backwash: (10, 1) and (10, 2) touch the bottom only
+        StdOut.println("TEST BACKWASH:");
+        if (!x.isFull(10, 1) && !x.isFull(10, 2) && x.isFull(10, 10))
+            StdOut.println("\tbackwash passed");
+
         y.open(1, 1);
             if (y.isOpen(1, 1))
             StdOut.println("1,1 is open");
@@ -211,6 +702,92 @@ public class Percolation {
         z.open(4, 1);
         if (z.percolates())
             StdOut.println("z percolates");        
+
+        // test reset: z is blocked again and can percolate again
+        StdOut.println("TEST RESET:");
+        z.reset();
+        if (!z.percolates() && !z.isOpen(2, 1) && z.numberOfOpenSites() == 0) {
+            z.open(1, 2);
+            z.open(2, 2);
+            z.open(3, 2);
+            z.open(4, 2);
+            if (z.percolates() && z.isFull(4, 2) && !z.isFull(4, 1))
+                StdOut.println("\treset passed");
+        }
+
+        // test bulk open: a column of 1D indices percolates
+        StdOut.println("TEST OPENALL:");
+        Percolation w = new Percolation(4);
+        w.openAll(new int[] { 1, 5, 9 });
+        w.open(13L);
+        if (w.percolates() && w.isFull(4, 2) && w.numberOfOpenSites() == 4)
+            StdOut.println("\topenAll passed");
+
+        // test off-heap backend: same opens, same answers
+        StdOut.println("TEST OFF-HEAP:");
+        Percolation v = Percolation.offHeap(4, null);
+        v.openAll(new int[] { 1, 5, 9, 13, 15 });
+        if (v.percolates() && v.isFull(4, 2) && !v.isFull(4, 4)) {
+            v.reset();
+            if (!v.percolates() && !v.isOpen(4, 4))
+                StdOut.println("\toff-heap passed");
+        }
+
+        // test two mapped grids of the same N in one directory: they keep
+        // apart, and leave no files behind
+        try {
+            Path directory = Files.createTempDirectory("percolation");
+            Percolation left = Percolation.offHeap(4, directory);
+            Percolation right = Percolation.offHeap(4, directory);
+            left.openAll(new int[] { 1, 5, 9, 13 });
+            right.open(3, 3);
+            boolean apart = left.percolates() && !right.percolates()
+                && !right.isOpen(1, 2) && !left.isOpen(3, 3);
+            try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+                apart = apart && files.count() == 0;
+            }
+            Files.delete(directory);
+            if (apart)
+                StdOut.println("\tmapped files passed");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // test random fill: strip labelling agrees with opening one by one
+        StdOut.println("TEST OPENRANDOM:");
+        Percolation bulk = new Percolation(50);
+        Percolation serial = new Percolation(50);
+        bulk.openRandom(0.6, 42L);
+        boolean same = true;
+        for (int i = 1; i <= 50; i++)
+            for (int j = 1; j <= 50; j++)
+                if (bulk.isOpen(i, j))
+                    serial.open(i, j);
+        for (int i = 1; i <= 50; i++)
+            for (int j = 1; j <= 50; j++)
+                same = same && bulk.isFull(i, j) == serial.isFull(i, j);
+        if (same && bulk.percolates() == serial.percolates()
+                && bulk.numberOfOpenSites() == serial.numberOfOpenSites())
+            StdOut.println("\topenRandom passed");
+
+        // test openUntilPercolates: stops at the site that completes the
+        // column, and skips the repeated site
+        StdOut.println("TEST OPENUNTILPERCOLATES:");
+        Percolation u = new Percolation(3);
+        long step = u.openUntilPercolates(new int[] { 1, 4, 4, 3, 7, 8, 2 });
+        if (step == 4 && u.isFull(3, 2) && !u.isOpen(3, 3))
+            StdOut.println("\topenUntilPercolates passed");
+
+        // test lattices: a square given as a Lattice takes the square path,
+        // and a triangular diagonal percolates where the square does not
+        StdOut.println("TEST LATTICE:");
+        Percolation square = new Percolation(new SquareLattice(3));
+        Percolation triangle = new Percolation(new TriangularLattice(3));
+        square.openAll(new int[] { 0, 4, 8 });
+        triangle.openAll(new int[] { 0, 4, 8 });
+        if (!square.percolates() && square.isOpen(2, 2)
+                && triangle.percolates() && triangle.isFull(8L))
+            StdOut.println("\tlattice passed");
     }
 }
 
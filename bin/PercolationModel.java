@@ -0,0 +1,44 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac PercolationModel.java
+ *
+ * Defines what PercolationStats needs from a system to run trials on it:
+ * site percolation (Percolation) or bond percolation (BondPercolation),
+ * on any Lattice.
+ *---------------------------------------------------------------------------*/
+
+import java.util.function.LongSupplier;
+
+public interface PercolationModel {
+
+    /**************************************************************************
+     * Method that returns the number of elements that can be opened, sites
+     * or bonds. Thresholds are fractions of this number.
+     *************************************************************************/
+    long elements();
+
+    /**************************************************************************
+     * Method that returns the number of indices open accepts, from 0.
+     * May be larger than elements() when some indices name no element,
+     * such as bonds past the edge of the lattice; those are skipped.
+     *************************************************************************/
+    long indices();
+
+    /**************************************************************************
+     * Method that opens elements drawn from a generator of indices until
+     * the system percolates, and returns the number of open elements then.
+     *************************************************************************/
+    long openUntilPercolates(LongSupplier order);
+
+    /**************************************************************************
+     * Method that says whether the system percolates.
+     *************************************************************************/
+    boolean percolates();
+
+    /**************************************************************************
+     * Method that blocks every element again, without allocating.
+     *************************************************************************/
+    void reset();
+}
@@ -1,93 +1,742 @@
 /*-------------------------------------------------------------------------
  * Author:        Mark Johnson
  * Written:       8/22/2012
- * Last Updated:  8/24/2012
+ * Last Updated:  10/18/2026
  *
  * Compilation:   javac PercolationStats.java
- * Execution:     java PercolationStats
+ * Execution:     java PercolationStats N T [lattice] [site|bond]
+ *                                      [-seed S] [-threads K]
+ *                                      [-epsilon E] [-time SECONDS]
+ *                                      [-curve K] [-checkpoint FILE]
+ *                                      [-shard I/K] [-histogram]
+ *                java PercolationStats -merge FILE... [-histogram]
  *
  * Generates a Monte Carlo simulation, stores percolation thresholds,
  * and provides mean and standard deviation methods to analyze the
  * generated data.
- * 
+ *
+ * The lattice is square, triangular, honeycomb or cubic (default
+ * square), with site (default) or bond percolation.
+ *
+ * Trials run in parallel on a fork-join pool. They are grouped in fixed
+ * blocks of BLOCK_TRIALS, and block b draws from its own generator,
+ * seeded with output b of a SplitMix64 sequence started from the master
+ * seed. Which thread runs a block therefore does not matter: the same
+ * seed gives bit-identical thresholds, mean and stddev for any number
+ * of threads.
+ *
+ * Sites are drawn without replacement, by a Fisher-Yates shuffle that is
+ * generated one step per draw. Every draw opens a new site, so no draws
+ * are wasted on open sites near the threshold. The block generators are
+ * BatchedRandom by default, which hand out buffered bounded ints; any
+ * RandomGenerator can be injected instead.
+ *
+ * Thresholds are not stored: a ThresholdAccumulator keeps their exact
+ * moments, so T is not bounded by memory. Blocks run in rounds of one
+ * block per pool thread, and each block's thresholds are added to the
+ * totals in block order. Given an epsilon, the run stops after the first
+ * block whose totals have a 95% confidence half-width below it; as blocks
+ * are added in order, that block does not depend on the number of
+ * threads, so stopping on epsilon is reproducible. Given a time budget,
+ * no block starts once it has passed, so a run overruns it by at most the
+ * time of one block; stopping on time is not reproducible. T is then only
+ * a cap.
+ *
+ * With -checkpoint FILE, the thresholds of completed rounds are saved to
+ * FILE after the first round to end CHECKPOINT_NANOS after the last save,
+ * and at the end, by a background thread, so
+ * the workers never wait on the disk. If FILE exists, the run resumes
+ * after its last saved round, with its seed unless -seed is given, and
+ * ends with the same results as an uninterrupted run.
+ *
+ * With -shard I/K, only shard I of K runs: the I-th of K near-equal ranges
+ * of blocks. Its checkpoint file is then its partial result. Shards of
+ * one seed and T can run in any processes or machines, and -merge adds
+ * up their files into the results one run would give, bit for bit, as
+ * the moments and histogram are integer sums.
+ *
+ * With -curve K, site trials run as a NewmanZiff sweep instead, which
+ * also prints the spanning probability and largest cluster at K + 1
+ * evenly spaced values of p, from the same single pass per trial.
+ *
  *************************************************************************/
 
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.random.RandomGenerator;
+import java.util.function.Supplier;
+
 public class PercolationStats {
+    private static final int BLOCK_TRIALS = 16; // trials per random stream
+    private static final long REPORT_NANOS = 1000000000L; // progress period
+    private static final long CHECKPOINT_NANOS = 60000000000L; // save period
 
-    private int[] tableOfCounts;           // store thresholds
-    private int randomFirst, randomSecond; // two random numbers
-    private Percolation experiment;        // experiment object
-    private int numberOfSimulations;       // number of repititions
-    private int dimension;                 // dimension of grid
-    private int threshold;                 // running percolation threshold
+    private ThresholdAccumulator thresholds; // moments of the thresholds
+    private long numberOfSimulations;      // most repititions to run
+    private long elements;                 // sites or bonds per experiment
+    private long seed;                     // master seed
+    private long firstBlock;               // first block of the shard
+    private LongFunction<? extends RandomGenerator> generators; // per block
+    private boolean timed;                 // is there a time budget?
+    private long deadline;                 // System.nanoTime() budget end
 
     /*******************************************************************
-     * Initializes and runs each experiment, populating a table of 
-     * percolation thresholds.
+     * Initializes and runs each experiment, populating a table of
+     * percolation thresholds. Uses a time-based seed and all threads
+     * of the common pool.
      *******************************************************************/
     public PercolationStats(int N, int T) {
-        if ((N <= 0) || (T <= 0))
+        this(squareGrid(N), T);
+    }
+
+    /*******************************************************************
+     * Runs T experiments on the systems a model supplies: site or bond
+     * percolation on any lattice. Thresholds are fractions of the
+     * model's elements.
+     *******************************************************************/
+    public PercolationStats(Supplier<? extends PercolationModel> model,
+                            int T) {
+        this(model, T, System.nanoTime(), ForkJoinPool.commonPool());
+    }
+
+    /*******************************************************************
+     * Runs T experiments from a master seed on the given pool.
+     * Each pool thread reuses one system, reset in place between
+     * trials, so the trial loop does not allocate.
+     *******************************************************************/
+    public PercolationStats(Supplier<? extends PercolationModel> model,
+                            int T, long seed, ForkJoinPool pool) {
+        this(model, T, 0.0, 0, seed, pool, null);
+    }
+
+    /*******************************************************************
+     * Runs T experiments from a master seed on the given pool, block
+     * b drawing from generators.apply(seed of block b).
+     *******************************************************************/
+    public PercolationStats(Supplier<? extends PercolationModel> model,
+                            int T, long seed, ForkJoinPool pool,
+                            LongFunction<? extends RandomGenerator> generators) {
+        this(model, T, 0, 1, 0.0, 0, seed, pool, null, null, generators);
+    }
+
+    /*******************************************************************
+     * Runs at most T experiments, stopping early once the 95%
+     * confidence half-width is below epsilon or maxMillis have passed
+     * (0 disables either test). Prints a progress line to the stream,
+     * if not null, about once a second.
+     *******************************************************************/
+    public PercolationStats(Supplier<? extends PercolationModel> model,
+                            long T, double epsilon, long maxMillis,
+                            long seed, ForkJoinPool pool,
+                            PrintStream progress) {
+        this(model, T, epsilon, maxMillis, seed, pool, progress, null);
+    }
+
+    /*******************************************************************
+     * Runs as above, saving completed rounds to a checkpoint file if
+     * it is not null. If the file exists, resumes the run it holds,
+     * which must have the same seed, T and elements per system.
+     *******************************************************************/
+    public PercolationStats(Supplier<? extends PercolationModel> model,
+                            long T, double epsilon, long maxMillis,
+                            long seed, ForkJoinPool pool,
+                            PrintStream progress, Path checkpoint) {
+        this(model, T, 0, 1, epsilon, maxMillis, seed, pool, progress,
+             checkpoint, BatchedRandom::new);
+    }
+
+    /*******************************************************************
+     * Runs shard number shard, from 0, of a run of T experiments split
+     * into shards, saving its thresholds to the checkpoint file as it
+     * goes. The files of all the shards merge into the results of the
+     * whole run.
+     *
+     * A factory rather than a constructor, as its parameter types would
+     * otherwise match those of the epsilon and time budget constructor.
+     *******************************************************************/
+    public static PercolationStats shard(Supplier<? extends PercolationModel> model,
+                                         long T, int shard, int shards,
+                                         long seed, ForkJoinPool pool,
+                                         PrintStream progress,
+                                         Path checkpoint) {
+        return new PercolationStats(model, T, shard, shards, 0.0, 0, seed,
+                                    pool, progress, checkpoint,
+                                    BatchedRandom::new);
+    }
+
+    /*******************************************************************
+     * Runs the blocks of one shard, with every option.
+     *******************************************************************/
+    private PercolationStats(Supplier<? extends PercolationModel> model,
+                             long T, int shard, int shards,
+                             double epsilon, long maxMillis,
+                             long seed, ForkJoinPool pool,
+                             PrintStream progress, Path checkpoint,
+                             LongFunction<? extends RandomGenerator> generators) {
+        if (T <= 0)
             throw new java.lang.IllegalArgumentException("index out of bounds");
-        dimension = N;
+        if (epsilon < 0.0 || maxMillis < 0)
+            throw new java.lang.IllegalArgumentException("negative target");
+        if (shard < 0 || shard >= shards)
+            throw new java.lang.IllegalArgumentException("no such shard");
         numberOfSimulations = T;
-        tableOfCounts = new int[numberOfSimulations];
-        
-        for (int i = 1; i <= numberOfSimulations; i++) {
-            experiment = new Percolation(dimension);
-            threshold = 0;
-
-            while (!experiment.percolates()) {
-                randomFirst = StdRandom.uniform(1, dimension + 1);
-                randomSecond = StdRandom.uniform(1, dimension + 1);
-
-                if (!experiment.isOpen(randomFirst, randomSecond)) {
-                    experiment.open(randomFirst, randomSecond);
-                    threshold++;
+        this.seed = seed;
+        this.generators = generators;
+
+        Worker first = new Worker(model.get());
+        elements = first.experiment.elements();
+        thresholds = new ThresholdAccumulator(elements);
+        ConcurrentLinkedQueue<Worker> idle = new ConcurrentLinkedQueue<Worker>();
+        idle.add(first);
+        long blocks = (T - 1) / BLOCK_TRIALS + 1;
+        firstBlock = shardStart(blocks, shard, shards);
+        long lastBlock = shardStart(blocks, shard + 1, shards);
+        long resumed = firstBlock;
+        if (checkpoint != null && Files.exists(checkpoint)) {
+            resumed = resume(Checkpoint.read(checkpoint));
+            if (epsilon > 0.0 && halfWidth() < epsilon) {
+                resumed = lastBlock;
+            }
+        }
+        if (checkpoint != null && firstBlock == lastBlock) {
+            // more shards than blocks: save the empty range, so that merge
+            // still finds every shard's file
+            new Checkpoint(seed, elements, T, firstBlock, lastBlock,
+                           thresholds).write(checkpoint);
+        }
+        ExecutorService writer = null;
+        Future<?> pending = null;
+        if (checkpoint != null) {
+            writer = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        long start = System.nanoTime();
+        long reported = start;
+        long saved = start;
+        timed = maxMillis > 0;
+        deadline = start + maxMillis * 1000000L;
+        ThresholdAccumulator[] round =
+            new ThresholdAccumulator[pool.getParallelism()];
+        for (int i = 0; i < round.length; i++) {
+            round[i] = new ThresholdAccumulator(elements);
+        }
+        long next = resumed;                 // first block not yet added
+        boolean done = next >= lastBlock;
+        while (!done) {
+            long hi = Math.min(lastBlock, next + round.length);
+            for (ThresholdAccumulator block : round) {
+                block.clear();
+            }
+            pool.invoke(new Trials(model, idle, round, next, next, hi));
+            long added = next;               // add the round in block order
+            while (added < hi && !done) {
+                ThresholdAccumulator block = round[(int) (added - next)];
+                if (block.count() == 0) {    // not started, out of time
+                    done = true;
+                } else {
+                    thresholds.merge(block);
+                    added++;
+                    done = added == lastBlock
+                        || (epsilon > 0.0 && halfWidth() < epsilon);
                 }
             }
-            tableOfCounts[i-1] = threshold;
+            next = added;
+            long now = System.nanoTime();
+            done |= expired();
+            if (progress != null && (done || now - reported >= REPORT_NANOS)) {
+                progress.printf("%d trials, mean %.6f, half-width %.6f, %.1f s%n",
+                                trials(), mean(), halfWidth(),
+                                (now - start) / 1e9);
+                reported = now;
+            }
+            if (writer != null && (done || now - saved >= CHECKPOINT_NANOS)) {
+                Checkpoint state = new Checkpoint(seed, elements, T,
+                                                  firstBlock, next, thresholds);
+                awaitWrite(pending);
+                pending = writer.submit(() -> state.write(checkpoint));
+                saved = now;
+            }
+        }
+        if (writer != null) {
+            awaitWrite(pending);
+            writer.shutdown();
         }
-        
+    }
+
+    /*******************************************************************
+     * Rebuilds the results of a run from its saved thresholds.
+     *******************************************************************/
+    private PercolationStats(Checkpoint saved) {
+        numberOfSimulations = saved.trials();
+        elements = saved.elements();
+        seed = saved.seed();
+        firstBlock = saved.start();
+        thresholds = saved.thresholds();
     }
 
     /***************************************************************************
-     * Returns the mean from the table of percolation thresholds
-     * Mean is a function of tableOfCounts and gridSize.
-     * Array tableOfCounts depends on variable threshold.
-     * Variable gridSize is a function of dimension.
-     * Variable dimension is safe.
+     * Merges the files the shards of one run wrote into the results of the
+     * whole run. The shards must cover every block exactly once.
+     ***************************************************************************/
+    public static PercolationStats merge(java.util.List<Path> parts) {
+        java.util.List<Checkpoint> shards = new java.util.ArrayList<Checkpoint>();
+        java.util.Map<Checkpoint, Path> files =
+            new java.util.IdentityHashMap<Checkpoint, Path>();
+        for (Path part : parts) {
+            Checkpoint shard = Checkpoint.read(part);
+            shards.add(shard);
+            files.put(shard, part);
+        }
+        if (shards.isEmpty())
+            throw new java.lang.IllegalArgumentException("nothing to merge");
+        shards.sort(java.util.Comparator.comparingLong(Checkpoint::start)
+                        .thenComparingLong(Checkpoint::next));
+        Checkpoint head = shards.get(0);
+        ThresholdAccumulator total =
+            new ThresholdAccumulator(head.thresholds().limit());
+        long next = 0;
+        Checkpoint previous = null;          // shard that ends at next
+        for (Checkpoint shard : shards) {
+            if (shard.seed() != head.seed() || shard.trials() != head.trials()
+                    || shard.elements() != head.elements())
+                throw new java.lang.IllegalArgumentException(
+                    "shards are from different runs");
+            if (shard.start() < next)
+                throw new java.lang.IllegalArgumentException(
+                    files.get(shard) + " and " + files.get(previous)
+                    + " both hold blocks " + shard.start() + " to "
+                    + (Math.min(next, shard.next()) - 1));
+            if (shard.start() > next)
+                throw new java.lang.IllegalArgumentException(
+                    "blocks " + next + " to " + (shard.start() - 1)
+                    + " are missing");
+            total.merge(shard.thresholds());
+            next = shard.next();
+            previous = shard;
+        }
+        long blocks = (head.trials() - 1) / BLOCK_TRIALS + 1;
+        if (next != blocks)
+            throw new java.lang.IllegalArgumentException(
+                "blocks " + next + " to " + (blocks - 1) + " are missing");
+        return new PercolationStats(new Checkpoint(head.seed(), head.elements(),
+                                                   head.trials(), 0, blocks,
+                                                   total));
+    }
+
+    /***************************************************************************
+     * Returns the mean of the percolation thresholds.
+     * Mean is a function of the accumulated counts and elements.
      ***************************************************************************/
     public double mean() {
-        double gridSize = ((double) (dimension * dimension));
-        return (StdStats.mean(tableOfCounts) / gridSize);
+        return (thresholds.mean() / elements);
     }
 
     /****************************************************************************
-     * Returns the sample standard deviation from the thresholds store.
-     * Standard deviation is a function of tableOfCounts and gridSize.
-     * Array tableOfCounts depends on variable threshold.
-     * Variable gridSize is a function of dimension.
-     * Variable dimension is safe.
+     * Returns the sample standard deviation of the thresholds.
+     * Standard deviation is a function of the accumulated counts and
+     * elements.
      ****************************************************************************/
     public double stddev() {
-        double gridSize = ((double) (dimension * dimension));
-        return (StdStats.stddev(tableOfCounts) / gridSize);
+        return (thresholds.stddev() / elements);
+    }
+
+    /****************************************************************************
+     * Returns the number of experiments run, at most T.
+     ****************************************************************************/
+    public long trials() {
+        return thresholds.count();
+    }
+
+    /****************************************************************************
+     * Returns a histogram of the thresholds in
+     * ThresholdAccumulator.HISTOGRAM_BINS equal bins from 0 to 1.
+     ****************************************************************************/
+    public long[] histogram() {
+        return thresholds.histogram();
+    }
+
+    /****************************************************************************
+     * Returns the half-width of the 95% confidence interval, NaN before
+     * two experiments have run.
+     ****************************************************************************/
+    public double halfWidth() {
+        return (1.96 * stddev()) / Math.sqrt((double) trials());
+    }
+
+    /****************************************************************************
+     * Returns the low endpoint of the 95% confidence interval.
+     ****************************************************************************/
+    public double confidenceLo() {
+        return mean() - halfWidth();
+    }
+
+    /****************************************************************************
+     * Returns the high endpoint of the 95% confidence interval.
+     ****************************************************************************/
+    public double confidenceHi() {
+        return mean() + halfWidth();
+    }
+
+    /****************************************************************************
+     * Returns the master seed, so a run can be reproduced.
+     ****************************************************************************/
+    public long seed() {
+        return seed;
+    }
+
+    /***************************************************************************
+     * Helper method that runs the trials of block b on a worker, with the
+     * block's own random stream, adding their thresholds to block.
+     ***************************************************************************/
+    private void runBlock(long b, Worker worker, ThresholdAccumulator block) {
+        RandomGenerator random = generators.apply(BatchedRandom.mix64(seed, b));
+        long last = Math.min(numberOfSimulations, (b + 1) * BLOCK_TRIALS);
+        for (long t = b * BLOCK_TRIALS; t < last; t++) {
+            long started = Metrics.ENABLED ? System.nanoTime() : 0;
+            long threshold = worker.trial(random);
+            block.add(threshold);
+            if (Metrics.ENABLED) {
+                Metrics.trial(b, started, threshold);
+            }
+        }
+    }
+
+    /***************************************************************************
+     * Helper method that says if the time budget, if any, has run out.
+     ***************************************************************************/
+    private boolean expired() {
+        return timed && System.nanoTime() - deadline >= 0;
+    }
+
+    /***************************************************************************
+     * Helper method that checks a checkpoint belongs to this run, adds its
+     * thresholds and returns the first block left to run.
+     ***************************************************************************/
+    private long resume(Checkpoint saved) {
+        if (saved.seed() != seed || saved.trials() != numberOfSimulations
+                || saved.elements() != elements || saved.start() != firstBlock)
+            throw new java.lang.IllegalArgumentException(
+                "checkpoint is for another run");
+        thresholds.merge(saved.thresholds());
+        return saved.next();
+    }
+
+    /***************************************************************************
+     * Helper method that returns the first block of shard number shard; the
+     * shard ends where the next one starts.
+     ***************************************************************************/
+    private static long shardStart(long blocks, int shard, int shards) {
+        return blocks / shards * shard + blocks % shards * shard / shards;
+    }
+
+    /***************************************************************************
+     * Helper method that waits for a checkpoint write, if any, and rethrows
+     * its failure.
+     ***************************************************************************/
+    private static void awaitWrite(Future<?> pending) {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw (UncheckedIOException) e.getCause();
+            }
+            throw new java.lang.IllegalStateException(e.getCause());
+        }
+    }
+
+    /***************************************************************************
+     * Helper method that prints the thresholds of a sweep and its curves at
+     * K + 1 values of p.
+     ***************************************************************************/
+    private static void printCurve(NewmanZiff sweep, long seed, int K) {
+        ThresholdAccumulator thresholds = sweep.thresholds();
+        double mean = thresholds.mean() / sweep.sites();
+        double stddev = thresholds.stddev() / sweep.sites();
+        double halfWidth = 1.96 * stddev / Math.sqrt((double) sweep.trials());
+        StdOut.println("seed\t\t\t" + "= " + seed);
+        StdOut.println("trials\t\t\t" + "= " + sweep.trials());
+        StdOut.println("mean\t\t\t" + "= " + mean);
+        StdOut.println("stddev\t\t\t" + "= " + stddev);
+        StdOut.print("95% confidence interval =");
+        StdOut.print(" " + (mean - halfWidth) + ", " + (mean + halfWidth) + "\n");
+        StdOut.println("p\t\tspanning\tlargest cluster");
+        for (int i = 0; i <= K; i++) {
+            double p = (double) i / K;
+            StdOut.printf("%.6f\t%.6f\t%.6f\n", p, sweep.spanningProbability(p),
+                          sweep.largestClusterFraction(p));
+        }
+    }
+
+    /***************************************************************************
+     * Helper method that checks N and supplies an N-by-N site grid.
+     ***************************************************************************/
+    private static Supplier<Percolation> squareGrid(int N) {
+        if (N <= 0)
+            throw new java.lang.IllegalArgumentException("index out of bounds");
+        return () -> new Percolation(N);
+    }
+
+    /***************************************************************************
+     * Helper method that returns the lattice with the given name.
+     ***************************************************************************/
+    static Lattice lattice(String name, int N) {
+        switch (name) {
+            case "square":     return new SquareLattice(N);
+            case "triangular": return new TriangularLattice(N);
+            case "honeycomb":  return new HoneycombLattice(N);
+            case "cubic":      return new CubicLattice(N);
+            default:
+                throw new java.lang.IllegalArgumentException(
+                    "unknown lattice " + name);
+        }
+    }
+
+    /***************************************************************************
+     * A system reused by one thread at a time, with the random stream of
+     * the block it is running. Draws the system's indices in random order
+     * without replacement.
+     *
+     * The draws are a lazy Fisher-Yates shuffle of order: draw k swaps a
+     * random entry of order[k..] into order[k] and returns it. Each trial
+     * starts from the identity, so its draws depend only on its random
+     * stream and not on the trials the worker ran before. rewind restores
+     * the identity in time proportional to the draws, not the indices.
+     *
+     * Package-private so Benchmarks can time a trial on its own.
+     ***************************************************************************/
+    static class Worker implements LongSupplier {
+        private PercolationModel experiment; // reused system
+        private int indices;                 // indices the system accepts
+        private int[] order;                 // permutation of the indices
+        private int drawn;                   // indices drawn this trial
+        private RandomGenerator random;      // stream of the current block
+
+        public Worker(PercolationModel experiment) {
+            if (experiment.indices() > Integer.MAX_VALUE)
+                throw new java.lang.IllegalArgumentException("system too large");
+            this.experiment = experiment;
+            this.indices = (int) experiment.indices();
+            order = new int[indices];
+            for (int i = 0; i < indices; i++) {
+                order[i] = i;
+            }
+        }
+
+        /***********************************************************************
+         * Runs one trial on the system, drawing from random, and returns
+         * the number of elements open when it first percolates.
+         ***********************************************************************/
+        public long trial(RandomGenerator random) {
+            this.random = random;
+            experiment.reset();
+            rewind();
+            return experiment.openUntilPercolates(this);
+        }
+
+        /***********************************************************************
+         * Puts order back to the identity. A position p >= drawn was only
+         * ever changed if index p itself was drawn, so the drawn prefix
+         * names every changed position past it.
+         ***********************************************************************/
+        public void rewind() {
+            for (int k = 0; k < drawn; k++) {
+                int index = order[k];
+                if (index >= drawn) {
+                    order[index] = index;
+                }
+            }
+            for (int k = 0; k < drawn; k++) {
+                order[k] = k;
+            }
+            drawn = 0;
+        }
+
+        public long getAsLong() {
+            int r = drawn + random.nextInt(indices - drawn);
+            int index = order[r];
+            order[r] = order[drawn];
+            order[drawn++] = index;
+            return index;
+        }
+    }
+
+    /***************************************************************************
+     * Fork-join task that splits a range of blocks in halves down to single
+     * blocks, block b adding its thresholds to round[b - first]. Idle
+     * workers are shared, so there is at most one system per thread. A
+     * block does not start once the time budget has run out.
+     ***************************************************************************/
+    private class Trials extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private Supplier<? extends PercolationModel> model;
+        private ConcurrentLinkedQueue<Worker> idle;
+        private ThresholdAccumulator[] round; // thresholds per block
+        private long first;                  // block of round[0]
+        private long lo, hi;                 // blocks lo through hi - 1
+
+        public Trials(Supplier<? extends PercolationModel> model,
+                      ConcurrentLinkedQueue<Worker> idle,
+                      ThresholdAccumulator[] round, long first,
+                      long lo, long hi) {
+            this.model = model;
+            this.idle = idle;
+            this.round = round;
+            this.first = first;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo > 1) {
+                long mid = (lo + hi) >>> 1;
+                invokeAll(new Trials(model, idle, round, first, lo, mid),
+                          new Trials(model, idle, round, first, mid, hi));
+                return;
+            }
+            if (expired()) {
+                return;
+            }
+            Worker worker = idle.poll();
+            if (worker == null) {
+                worker = new Worker(model.get());
+            }
+            runBlock(lo, worker, round[(int) (lo - first)]);
+            idle.offer(worker);
+        }
     }
 
     public static void main(String[] args) {
-        int N = Integer.parseInt(args[0]);       // grid size
-        int T = Integer.parseInt(args[1]);       // number of simulations 
-        int randomFirst, randomSecond;           // two random numbers
-        double lowerConfidence, upperConfidence; // confidence intervals
+        java.util.List<String> positional = new java.util.ArrayList<String>();
+        long seed = System.nanoTime();           // master seed
+        int threads = 0;                         // 0 means common pool
+        double epsilon = 0.0;                    // 0 means run all T
+        long maxMillis = 0;                      // 0 means no time budget
+        int curve = 0;                           // 0 means no curve
+        Path checkpoint = null;                  // null means no checkpoint
+        boolean seeded = false;                  // seed given with -seed
+        int shard = 0, shards = 1;               // run shard of shards
+        boolean merge = false;                   // merge files, no run
+        boolean histogram = false;               // print the histogram
+        for (int k = 0; k < args.length; k++) {
+            if (args[k].equals("-merge")) {
+                merge = true;
+            } else if (args[k].equals("-histogram")) {
+                histogram = true;
+            } else if (args[k].equals("-shard")) {
+                String[] split = args[++k].split("/");
+                shard = Integer.parseInt(split[0]);
+                shards = Integer.parseInt(split[1]);
+            } else if (args[k].equals("-seed")) {
+                seed = Long.parseLong(args[++k]);
+                seeded = true;
+            } else if (args[k].equals("-checkpoint")) {
+                checkpoint = Paths.get(args[++k]);
+            } else if (args[k].equals("-threads")) {
+                threads = Integer.parseInt(args[++k]);
+            } else if (args[k].equals("-epsilon")) {
+                epsilon = Double.parseDouble(args[++k]);
+            } else if (args[k].equals("-curve")) {
+                curve = Integer.parseInt(args[++k]);
+            } else if (args[k].equals("-time")) {
+                maxMillis = (long) (Double.parseDouble(args[++k]) * 1000);
+            } else {
+                positional.add(args[k]);
+            }
+        }
+        if (merge) {
+            java.util.List<Path> parts = new java.util.ArrayList<Path>();
+            for (String part : positional) {
+                parts.add(Paths.get(part));
+            }
+            printStats(merge(parts), histogram);
+            return;
+        }
+        int N = Integer.parseInt(positional.get(0));   // grid size
+        long T = Long.parseLong(positional.get(1));    // most simulations
+
+        String shape = (positional.size() > 2) ? positional.get(2) : "square";
+        boolean bonds = (positional.size() > 3)
+                        && positional.get(3).equals("bond");
+        Lattice lattice = lattice(shape, N);
+        ForkJoinPool pool = (threads > 0) ? new ForkJoinPool(threads)
+                                          : ForkJoinPool.commonPool();
+
+        if (curve > 0) {
+            if (bonds)
+                throw new java.lang.IllegalArgumentException(
+                    "curve needs site percolation");
+            printCurve(NewmanZiff.sweep(lattice, Math.toIntExact(T), seed, pool),
+                       seed, curve);
+            return;
+        }
 
-        PercolationStats sample = new PercolationStats(N, T);
+        if (!seeded && checkpoint != null && Files.exists(checkpoint)) {
+            seed = Checkpoint.read(checkpoint).seed();
+            seeded = true;
+        }
+        if (shards > 1 && (checkpoint == null || !seeded))
+            throw new java.lang.IllegalArgumentException(
+                "a shard needs -seed and -checkpoint");
+        PrintStream progress = (epsilon > 0.0 || maxMillis > 0) ? System.err
+                                                                : null;
+        Supplier<? extends PercolationModel> model;
+        if (bonds) {
+            model = () -> new BondPercolation(lattice);
+        } else {
+            model = () -> new Percolation(lattice);
+        }
+        PercolationStats sample;
+        if (shards > 1) {
+            sample = shard(model, T, shard, shards, seed, pool, progress,
+                           checkpoint);
+        } else {
+            sample = new PercolationStats(model, T, epsilon, maxMillis, seed,
+                                          pool, progress, checkpoint);
+        }
+        printStats(sample, histogram);
+    }
+
+    /***************************************************************************
+     * Helper method that prints the results of a run, and optionally the
+     * nonempty bins of its histogram.
+     ***************************************************************************/
+    private static void printStats(PercolationStats sample, boolean histogram) {
+        StdOut.println("seed\t\t\t" + "= " + sample.seed());
+        StdOut.println("trials\t\t\t" + "= " + sample.trials());
         StdOut.println("mean\t\t\t" + "= " + sample.mean());
         StdOut.println("stddev\t\t\t" + "= " + sample.stddev());
-        lowerConfidence = 
-            sample.mean() - ((1.96 * sample.stddev())/Math.sqrt((double) T));
-        upperConfidence = 
-            sample.mean() + ((1.96 * sample.stddev())/Math.sqrt((double) T));
         StdOut.print("95% confidence interval =");
-        StdOut.print(" " + lowerConfidence + ", " + upperConfidence + "\n");
+        StdOut.print(" " + sample.confidenceLo() + ", "
+                     + sample.confidenceHi() + "\n");
+        if (histogram) {
+            long[] bins = sample.histogram();
+            for (int i = 0; i < bins.length; i++) {
+                if (bins[i] > 0) {
+                    StdOut.printf("%.2f-%.2f\t%d\n", (double) i / bins.length,
+                                  (double) (i + 1) / bins.length, bins[i]);
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
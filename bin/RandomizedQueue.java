@@ -1,7 +1,7 @@
 /*-----------------------------------------------------------------------------
  * Author:        Mark Johnson
  * Written:       9/4/2012
- * Last Updated:  9/5/2012
+ * Last Updated:  10/18/2026
  *
  * Compilation:   javac RandomizedQueue.java
  * Execution:     java RandomizedQueue
@@ -18,14 +18,28 @@
  *
  * Challenge is to ensure that array resizing is infrequent.
  * When the array is full, copy it into a array twice its size.
+ *
+ * Random indices come from a RandomGenerator owned by the queue, a
+ * BatchedRandom unless one is injected, rather than the shared StdRandom.
+ *
+ * For bulk analytics, spliterator, stream and parallelStream cover the
+ * items in array order, which is arbitrary but costs no shuffle or copy,
+ * and split by halving the array range. The queue must not change while
+ * a stream is running over it.
  *---------------------------------------------------------------------------*/
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class RandomizedQueue<Item> implements Iterable<Item> {
     private Item[] randomQueue;
     private int N; // number of items in the queue
     private boolean shuffled;
+    private RandomGenerator random; // source of random indices
 
     /**************************************************************************
      * Method for default RandomizedQueue construction.
@@ -34,6 +48,15 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
      * Causes warning when compiling with -Xlint:unchecked.
      *************************************************************************/
     public RandomizedQueue() {
+        this(new BatchedRandom());
+    }
+
+    /**************************************************************************
+     * Method for RandomizedQueue construction with a given generator,
+     * for example a seeded one for reproducible orders.
+     *************************************************************************/
+    public RandomizedQueue(RandomGenerator random) {
+        this.random = random;
         randomQueue = (Item[]) new Object[1];
         N = 0;
         shuffled = false;
@@ -138,7 +161,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             throw new java.util.NoSuchElementException();
         }
 
-        return randomQueue[StdRandom.uniform(N)];
+        return randomQueue[random.nextInt(N)];
     }
 
     /**************************************************************************
@@ -149,7 +172,33 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         return new RandomizedQueueIterator();
     }
 
+    /**************************************************************************
+     * Method that returns a spliterator over the items in array order. It
+     * is SIZED and SUBSIZED, splitting the array range in half, and not
+     * ORDERED, since the order carries no meaning.
+     *************************************************************************/
+    public Spliterator<Item> spliterator() {
+        return Spliterators.spliterator(randomQueue, 0, N, Spliterator.NONNULL);
+    }
+
+    /**************************************************************************
+     * Method that returns a sequential stream over the items.
+     *************************************************************************/
+    public Stream<Item> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**************************************************************************
+     * Method that returns a parallel stream over the items.
+     *************************************************************************/
+    public Stream<Item> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     private void resize(int capacity) {
+        if (Metrics.ENABLED) {
+            Metrics.resize(randomQueue.length, capacity);
+        }
         Item[] copy = (Item[]) new Object[capacity];
         for (int i = 0; i < N; i++) {
             copy[i] = randomQueue[i];
@@ -163,7 +212,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
      */
     private void shuffle(Item[] a, int numberItems) {
         for (int i = 0; i < numberItems; i++) {
-            int r = i + StdRandom.uniform(numberItems - i);
+            int r = i + random.nextInt(numberItems - i);
             Item temp = a[i];
             a[i] = a[r];
             a[r] = temp;
@@ -373,5 +422,25 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         StdOut.println("answer is: " + testRQueue12.dequeue());
         StdOut.println("answer is: " + testRQueue12.dequeue());
         StdOut.println("answer is: " + testRQueue12.dequeue());        
+
+        // Test streams, sequential and parallel
+        StdOut.print("Test stream and parallelStream: ");
+        RandomizedQueue<Integer> testRQueue13 = new RandomizedQueue<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            testRQueue13.enqueue(i);
+        }
+        Spliterator<Integer> split = testRQueue13.spliterator();
+        Spliterator<Integer> prefix = split.trySplit();
+        long expected = 100000L * 99999 / 2;
+        if (testRQueue13.stream().mapToLong(i -> i).sum() == expected
+                && testRQueue13.parallelStream().mapToLong(i -> i).sum()
+                   == expected
+                && prefix.getExactSizeIfKnown() + split.getExactSizeIfKnown()
+                   == 100000
+                && split.hasCharacteristics(Spliterator.SUBSIZED)) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac RankedUnionFind.java
+ * Execution:     java RankedUnionFind
+ *
+ * Defines a union-find engine with union by rank and path halving,
+ * kept in a single int array.
+ *
+ * Each entry encodes either a link or a root:
+ *   entry >  0    the element is linked to parent (entry - 1)
+ *   entry <= 0    the element is a root, and -entry holds its rank
+ *                 shifted left by two over the component's two flag bits
+ * A freshly allocated array is therefore all singleton roots of rank 0
+ * with no flags, and no size array is needed next to the links.
+ *---------------------------------------------------------------------------*/
+
+public class RankedUnionFind implements UnionFind {
+    private static final int RANK_SHIFT = 2; // rank sits above the flags
+
+    protected int[] parent; // links and roots, see encoding above
+
+    /**************************************************************************
+     * Class constructor method which creates n singleton components.
+     *************************************************************************/
+    public RankedUnionFind(long n) {
+        if (n < 0 || n >= Integer.MAX_VALUE)
+            throw new java.lang.IllegalArgumentException("too many elements");
+        parent = new int[(int) n];
+    }
+
+    /**************************************************************************
+     * Method that returns the number of elements.
+     *************************************************************************/
+    public long size() {
+        return parent.length;
+    }
+
+    /**************************************************************************
+     * Method that returns the root of the component containing p.
+     *************************************************************************/
+    public long find(long p) {
+        return root((int) p);
+    }
+
+    /**************************************************************************
+     * Method that merges the components containing p and q.
+     * The root of lower rank is linked under the root of higher rank,
+     * and the surviving root takes the OR of both components' flags.
+     *************************************************************************/
+    public long union(long p, long q) {
+        int rootP = root((int) p);
+        int rootQ = root((int) q);
+        if (rootP == rootQ) {
+            return rootP;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.union();
+        }
+        int stateP = -parent[rootP];
+        int stateQ = -parent[rootQ];
+        int flags = (stateP | stateQ) & FLAG_MASK;
+        int rankP = stateP >>> RANK_SHIFT;
+        int rankQ = stateQ >>> RANK_SHIFT;
+        if (rankP < rankQ) {
+            parent[rootP] = rootQ + 1;
+            parent[rootQ] = -((rankQ << RANK_SHIFT) | flags);
+            return rootQ;
+        }
+        if (rankP == rankQ) {
+            rankP++;
+        }
+        parent[rootQ] = rootP + 1;
+        parent[rootP] = -((rankP << RANK_SHIFT) | flags);
+        return rootP;
+    }
+
+    /**************************************************************************
+     * Method that says whether p and q are in the same component.
+     *************************************************************************/
+    public boolean connected(long p, long q) {
+        return root((int) p) == root((int) q);
+    }
+
+    /**************************************************************************
+     * Method that returns the flags of the component containing p.
+     *************************************************************************/
+    public int flags(long p) {
+        return -parent[root((int) p)] & FLAG_MASK;
+    }
+
+    /**************************************************************************
+     * Method that adds flags to the component containing p.
+     *************************************************************************/
+    public int mark(long p, int flags) {
+        int root = root((int) p);
+        int state = -parent[root] | (flags & FLAG_MASK);
+        parent[root] = -state;
+        return state & FLAG_MASK;
+    }
+
+    /**************************************************************************
+     * Method that makes p a singleton root of rank 0 with no flags.
+     *************************************************************************/
+    public void reset(long p) {
+        parent[(int) p] = 0;
+    }
+
+    /**************************************************************************
+     * Helper method that finds the root of p with path halving: every
+     * other element on the path is relinked to its grandparent.
+     *************************************************************************/
+    protected int root(int p) {
+        int[] links = parent;
+        int next;
+        int steps = 0;                  // links followed, for Metrics
+        while ((next = links[p]) > 0) {
+            int grand = links[next - 1];
+            if (grand <= 0) {
+                p = next - 1;
+                steps++;
+                break;
+            }
+            links[p] = grand;
+            p = grand - 1;
+            steps += 2;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.find(steps);
+        }
+        return p;
+    }
+
+    public static void main(String[] args) {
+        UnionFind[] engines = {
+            new RankedUnionFind(10), new SplittingUnionFind(10)
+        };
+        for (UnionFind uf : engines) {
+            StdOut.print(uf.getClass().getName() + ": ");
+            uf.union(0, 1);
+            uf.union(2, 3);
+            uf.union(1, 3);
+            uf.union(5, 6);
+            uf.union(6, 7);
+            uf.union(7, 8);
+            uf.mark(0, 1);
+            uf.mark(8, 2);
+            uf.union(3, 8);
+            if (uf.connected(0, 2) && uf.connected(5, 8)
+                    && uf.connected(0, 7) && !uf.connected(4, 9)
+                    && uf.find(1) == uf.find(6)
+                    && uf.flags(5) == 3 && uf.flags(4) == 0) {
+                StdOut.println("passed");
+            } else {
+                StdOut.println("FAILED");
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac SiteSet.java
+ *
+ * Defines the open-site store used by Percolation: one bit per site,
+ * grouped in 64-bit words. Sites are addressed with longs. Word access
+ * lets Percolation reset only the words that hold open sites.
+ *---------------------------------------------------------------------------*/
+
+public interface SiteSet {
+
+    /**************************************************************************
+     * Method that says if a site is in the set.
+     *************************************************************************/
+    boolean contains(long site);
+
+    /**************************************************************************
+     * Method that adds a site to the set.
+     *************************************************************************/
+    void add(long site);
+
+    /**************************************************************************
+     * Method that returns the number of 64-bit words.
+     *************************************************************************/
+    long words();
+
+    /**************************************************************************
+     * Method that returns word w; site s is bit (s % 64) of word (s / 64).
+     *************************************************************************/
+    long word(long w);
+
+    /**************************************************************************
+     * Method that replaces word w. Distinct words may be set concurrently
+     * from different threads.
+     *************************************************************************/
+    void setWord(long w, long bits);
+
+    /**************************************************************************
+     * Method that removes every site in word w.
+     *************************************************************************/
+    void clearWord(long w);
+}
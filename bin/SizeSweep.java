@@ -0,0 +1,255 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac SizeSweep.java
+ * Execution:     java SizeSweep N1,N2,... T [lattice] [site|bond]
+ *                               [-epsilon E1,E2,...] [-seed S] [-threads K]
+ *                               [-nu NU]
+ *
+ * Runs PercolationStats for several lattice sizes on one shared fork-join
+ * pool and extrapolates the threshold of the infinite lattice.
+ *
+ * Each size runs at most T trials, stopping early once its 95%
+ * confidence half-width is below its own epsilon: one per size, in the
+ * order the sizes are given, or one for all. The fit weights each mean
+ * by its precision, so large sizes, which pin down p_c but cost the most
+ * per trial, can be given a looser target than small ones. Sizes are
+ * submitted to the pool
+ * largest first. Their trials are split into blocks that any worker can
+ * steal, so the expensive large systems start at once and the cheap
+ * small ones fill in around them, keeping every core busy to the end.
+ * Size N draws from master seed output N, so results are reproducible.
+ *
+ * The mean threshold of an N-wide system approaches p_c as
+ *
+ *     p(N) = p_c + a N^(-1/nu),
+ *
+ * with nu = 4/3 in two dimensions (about 0.8765 in three). A straight
+ * line fit of the means against N^(-1/nu), weighted by the inverse
+ * squared standard error of each mean, gives p_c as its intercept, with
+ * the intercept's standard error. A size whose standard error is not
+ * finite and positive, because all its trials gave the same threshold,
+ * would get an infinite or NaN weight, so it is left out of the fit.
+ *---------------------------------------------------------------------------*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+public class SizeSweep {
+    private int[] sizes;                    // lattice sizes, largest first
+    private double[] epsilons;              // half-width targets per size
+    private PercolationStats[] stats;       // results per size
+    private boolean[] fitted;               // size used in the fit?
+    private double nu;                      // correlation length exponent
+    private double threshold;               // extrapolated p_c
+    private double thresholdError;          // its standard error
+    private double slope;                   // finite-size coefficient a
+
+    /**************************************************************************
+     * Class constructor method which runs every size to the same epsilon
+     * and fits p_c. The models function supplies the systems of each size.
+     *************************************************************************/
+    public SizeSweep(IntFunction<Supplier<? extends PercolationModel>> models,
+                     int[] sizes, long T, double epsilon, long seed,
+                     ForkJoinPool pool, double nu) {
+        this(models, sizes, T, new double[] { epsilon }, seed, pool, nu);
+    }
+
+    /**************************************************************************
+     * Class constructor method which runs size sizes[k] to epsilons[k], or
+     * every size to epsilons[0] if only one is given, and fits p_c. Sizes
+     * and T must be at least 2, so that each size has a standard error.
+     *************************************************************************/
+    public SizeSweep(IntFunction<Supplier<? extends PercolationModel>> models,
+                     int[] sizes, long T, double[] epsilons, long seed,
+                     ForkJoinPool pool, double nu) {
+        if (sizes.length < 2)
+            throw new java.lang.IllegalArgumentException("need two sizes");
+        for (int N : sizes) {
+            if (N < 2)
+                throw new java.lang.IllegalArgumentException(
+                    "size " + N + " is below 2");
+        }
+        if (T < 2)
+            throw new java.lang.IllegalArgumentException(
+                "T must be at least 2");
+        if (epsilons.length != 1 && epsilons.length != sizes.length)
+            throw new java.lang.IllegalArgumentException(
+                "need one epsilon, or one per size");
+        if (!(nu > 0.0))
+            throw new java.lang.IllegalArgumentException("nu must be positive");
+        this.nu = nu;
+        Integer[] order = new Integer[sizes.length];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (i, j) -> Integer.compare(sizes[j], sizes[i]));
+        this.sizes = new int[sizes.length];
+        this.epsilons = new double[sizes.length];
+        for (int k = 0; k < order.length; k++) {
+            this.sizes[k] = sizes[order[k]];
+            this.epsilons[k] = epsilons[epsilons.length == 1 ? 0 : order[k]];
+        }
+
+        List<ForkJoinTask<PercolationStats>> runs =
+            new ArrayList<ForkJoinTask<PercolationStats>>();
+        for (int k = 0; k < this.sizes.length; k++) {
+            int N = this.sizes[k];
+            double epsilon = this.epsilons[k];
+            runs.add(pool.submit(() -> new PercolationStats(
+                models.apply(N), T, epsilon, 0, BatchedRandom.mix64(seed, N),
+                pool, null)));
+        }
+        stats = new PercolationStats[runs.size()];
+        for (int k = 0; k < stats.length; k++) {
+            stats[k] = runs.get(k).join();
+        }
+        fit();
+    }
+
+    /**************************************************************************
+     * Method that returns the sizes, largest first.
+     *************************************************************************/
+    public int[] sizes() {
+        return sizes.clone();
+    }
+
+    /**************************************************************************
+     * Method that returns the half-width target of the k-th size, largest
+     * first.
+     *************************************************************************/
+    public double epsilon(int k) {
+        return epsilons[k];
+    }
+
+    /**************************************************************************
+     * Method that returns the results for the k-th size, largest first.
+     *************************************************************************/
+    public PercolationStats stats(int k) {
+        return stats[k];
+    }
+
+    /**************************************************************************
+     * Method that says if the k-th size, largest first, was used in the
+     * fit: it is not if its standard error was not finite and positive.
+     *************************************************************************/
+    public boolean fitted(int k) {
+        return fitted[k];
+    }
+
+    /**************************************************************************
+     * Method that returns the extrapolated threshold p_c.
+     *************************************************************************/
+    public double threshold() {
+        return threshold;
+    }
+
+    /**************************************************************************
+     * Method that returns the standard error of p_c.
+     *************************************************************************/
+    public double thresholdError() {
+        return thresholdError;
+    }
+
+    /**************************************************************************
+     * Method that returns a, the coefficient of N^(-1/nu).
+     *************************************************************************/
+    public double slope() {
+        return slope;
+    }
+
+    /**************************************************************************
+     * Helper method that fits mean = p_c + a x, with x = N^(-1/nu), by
+     * weighted least squares, weights 1 / (stddev^2 / trials). Sizes with
+     * a standard error that is not finite and positive are skipped; at
+     * least two sizes must remain.
+     *************************************************************************/
+    private void fit() {
+        fitted = new boolean[sizes.length];
+        int used = 0;
+        double sw = 0.0, sx = 0.0, sy = 0.0, sxx = 0.0, sxy = 0.0;
+        for (int k = 0; k < sizes.length; k++) {
+            double x = Math.pow(sizes[k], -1.0 / nu);
+            double y = stats[k].mean();
+            double error = stats[k].stddev()
+                           / Math.sqrt((double) stats[k].trials());
+            if (!(error > 0.0 && error < Double.POSITIVE_INFINITY)) {
+                continue;
+            }
+            fitted[k] = true;
+            used++;
+            double w = 1.0 / (error * error);
+            sw += w;
+            sx += w * x;
+            sy += w * y;
+            sxx += w * x * x;
+            sxy += w * x * y;
+        }
+        if (used < 2)
+            throw new java.lang.IllegalArgumentException(
+                "fewer than two sizes have a positive standard error");
+        double determinant = sw * sxx - sx * sx;
+        slope = (sw * sxy - sx * sy) / determinant;
+        threshold = (sxx * sy - sx * sxy) / determinant;
+        thresholdError = Math.sqrt(sxx / determinant);
+    }
+
+    public static void main(String[] args) {
+        java.util.List<String> positional = new java.util.ArrayList<String>();
+        long seed = System.nanoTime();           // master seed
+        int threads = 0;                         // 0 means common pool
+        double[] epsilons = { 0.0 };             // 0 means run all T
+        double nu = 4.0 / 3.0;                   // 2D exponent
+        for (int k = 0; k < args.length; k++) {
+            if (args[k].equals("-seed")) {
+                seed = Long.parseLong(args[++k]);
+            } else if (args[k].equals("-threads")) {
+                threads = Integer.parseInt(args[++k]);
+            } else if (args[k].equals("-epsilon")) {
+                epsilons = Arrays.stream(args[++k].split(","))
+                                 .mapToDouble(Double::parseDouble).toArray();
+            } else if (args[k].equals("-nu")) {
+                nu = Double.parseDouble(args[++k]);
+            } else {
+                positional.add(args[k]);
+            }
+        }
+        int[] sizes = Arrays.stream(positional.get(0).split(","))
+                            .mapToInt(Integer::parseInt).toArray();
+        long T = Long.parseLong(positional.get(1));
+        String shape = (positional.size() > 2) ? positional.get(2) : "square";
+        boolean bonds = (positional.size() > 3)
+                        && positional.get(3).equals("bond");
+        ForkJoinPool pool = (threads > 0) ? new ForkJoinPool(threads)
+                                          : ForkJoinPool.commonPool();
+
+        IntFunction<Supplier<? extends PercolationModel>> models = N -> {
+            Lattice lattice = PercolationStats.lattice(shape, N);
+            if (bonds) {
+                return () -> new BondPercolation(lattice);
+            }
+            return () -> new Percolation(lattice);
+        };
+        SizeSweep sweep = new SizeSweep(models, sizes, T, epsilons, seed, pool,
+                                        nu);
+
+        StdOut.println("seed\t\t\t" + "= " + seed);
+        StdOut.println("N\ttrials\tmean\t\thalf-width\tepsilon");
+        for (int k = 0; k < sizes.length; k++) {
+            PercolationStats stats = sweep.stats(k);
+            StdOut.printf("%d\t%d\t%.6f\t%.6f\t%.6f%s\n", sweep.sizes()[k],
+                          stats.trials(), stats.mean(), stats.halfWidth(),
+                          sweep.epsilon(k),
+                          sweep.fitted(k) ? "" : "\tnot fitted");
+        }
+        StdOut.printf("p_c\t\t\t= %.6f +- %.6f (nu = %.4f, a = %.4f)\n",
+                      sweep.threshold(), sweep.thresholdError(), nu,
+                      sweep.slope());
+    }
+}
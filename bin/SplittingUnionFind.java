@@ -0,0 +1,43 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac SplittingUnionFind.java
+ *
+ * Defines a RankedUnionFind that compresses paths by splitting instead
+ * of halving: every element on the path is relinked to its grandparent.
+ *---------------------------------------------------------------------------*/
+
+public class SplittingUnionFind extends RankedUnionFind {
+
+    /**************************************************************************
+     * Class constructor method which creates n singleton components.
+     *************************************************************************/
+    public SplittingUnionFind(long n) {
+        super(n);
+    }
+
+    /**************************************************************************
+     * Helper method that finds the root of p with path splitting.
+     *************************************************************************/
+    @Override
+    protected int root(int p) {
+        int[] links = parent;
+        int next;
+        int steps = 0;                  // links followed, for Metrics
+        while ((next = links[p]) > 0) {
+            int grand = links[next - 1];
+            steps++;
+            if (grand <= 0) {
+                p = next - 1;
+                break;
+            }
+            links[p] = grand;
+            p = next - 1;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.find(steps);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,331 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac ThresholdAccumulator.java
+ * Execution:     java ThresholdAccumulator
+ *
+ * Defines a streaming accumulator for percolation thresholds, which are
+ * counts of opened sites. Keeps the count, sum and sum of squares of the
+ * values seen, plus the minimum and maximum, in constant space.
+ *
+ * The values are integers, so the sums are kept exactly: the sum in a
+ * long and the sum of squares in 128 bits. Merging two accumulators is
+ * plain addition, so any split of the values over threads, rounds or
+ * processes gives bit-identical mean and variance. Welford's update
+ * would give the same online, mergeable accumulator, but rounds
+ * differently depending on merge order.
+ *
+ * Given a limit on the values, it also counts them in HISTOGRAM_BINS equal
+ * bins over 0 through limit. Only accumulators with the same limit merge.
+ *
+ * The state is seven longs, plus the bins if there is a limit, which
+ * writeTo and readFrom save and restore for checkpoints.
+ *---------------------------------------------------------------------------*/
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+public class ThresholdAccumulator {
+    private static final BigInteger LOW_MASK =
+        BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    public static final int HISTOGRAM_BINS = 100;
+
+    private long count;            // values added
+    private long sum;              // sum of values
+    private long squaresHigh;      // sum of squares, high 64 bits
+    private long squaresLow;       // sum of squares, low 64 bits unsigned
+    private long min;              // smallest value
+    private long max;              // largest value
+    private long limit;            // largest value allowed, 0 if no histogram
+    private long[] histogram;      // counts per bin, null if no limit
+
+    /**************************************************************************
+     * Class constructor method for an empty accumulator without histogram.
+     *************************************************************************/
+    public ThresholdAccumulator() {
+        this(0);
+    }
+
+    /**************************************************************************
+     * Class constructor method for an empty accumulator of values from 0
+     * through limit, with a histogram. A limit of 0 means no limit and no
+     * histogram.
+     *************************************************************************/
+    public ThresholdAccumulator(long limit) {
+        if (limit < 0)
+            throw new java.lang.IllegalArgumentException("negative limit");
+        this.limit = limit;
+        if (limit > 0) {
+            histogram = new long[HISTOGRAM_BINS];
+        }
+        clear();
+    }
+
+    /**************************************************************************
+     * Method that adds a value, which must not be negative.
+     *************************************************************************/
+    public void add(long value) {
+        if (value < 0)
+            throw new java.lang.IllegalArgumentException("negative value");
+        if (histogram != null) {
+            if (value > limit)
+                throw new java.lang.IllegalArgumentException("value over limit");
+            histogram[(int) (value * HISTOGRAM_BINS / (limit + 1))]++;
+        }
+        count++;
+        sum += value;
+        addSquares(Math.multiplyHigh(value, value), value * value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**************************************************************************
+     * Method that adds every value another accumulator has seen.
+     *************************************************************************/
+    public void merge(ThresholdAccumulator that) {
+        if (that.limit != limit)
+            throw new java.lang.IllegalArgumentException("limits differ");
+        if (histogram != null) {
+            for (int i = 0; i < HISTOGRAM_BINS; i++) {
+                histogram[i] += that.histogram[i];
+            }
+        }
+        count += that.count;
+        sum += that.sum;
+        addSquares(that.squaresHigh, that.squaresLow);
+        min = Math.min(min, that.min);
+        max = Math.max(max, that.max);
+    }
+
+    /**************************************************************************
+     * Method that forgets every value.
+     *************************************************************************/
+    public void clear() {
+        count = 0;
+        sum = 0;
+        squaresHigh = 0;
+        squaresLow = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        if (histogram != null) {
+            java.util.Arrays.fill(histogram, 0);
+        }
+    }
+
+    /**************************************************************************
+     * Method that returns the number of values.
+     *************************************************************************/
+    public long count() {
+        return count;
+    }
+
+    /**************************************************************************
+     * Method that returns the smallest value, or Long.MAX_VALUE if empty.
+     *************************************************************************/
+    public long min() {
+        return min;
+    }
+
+    /**************************************************************************
+     * Method that returns the largest value, or Long.MIN_VALUE if empty.
+     *************************************************************************/
+    public long max() {
+        return max;
+    }
+
+    /**************************************************************************
+     * Method that returns the limit on the values, 0 if none.
+     *************************************************************************/
+    public long limit() {
+        return limit;
+    }
+
+    /**************************************************************************
+     * Method that returns a copy of the histogram, or null if there is no
+     * limit. Bin i counts the values v with
+     * v * HISTOGRAM_BINS / (limit + 1) == i.
+     *************************************************************************/
+    public long[] histogram() {
+        return (histogram == null) ? null : histogram.clone();
+    }
+
+    /**************************************************************************
+     * Method that returns the mean, or NaN if empty.
+     *************************************************************************/
+    public double mean() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return new BigDecimal(sum).divide(new BigDecimal(count),
+                                          MathContext.DECIMAL128).doubleValue();
+    }
+
+    /**************************************************************************
+     * Method that returns the sample variance, or NaN with fewer than two
+     * values: (n * sum of squares - sum^2) / (n * (n - 1)), exactly until
+     * the final division.
+     *************************************************************************/
+    public double variance() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        BigInteger n = BigInteger.valueOf(count);
+        BigInteger s = BigInteger.valueOf(sum);
+        BigInteger squares = BigInteger.valueOf(squaresHigh).shiftLeft(64)
+                             .add(BigInteger.valueOf(squaresLow).and(LOW_MASK));
+        BigInteger numerator = n.multiply(squares).subtract(s.multiply(s));
+        BigInteger denominator = n.multiply(n.subtract(BigInteger.ONE));
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator),
+                                                MathContext.DECIMAL128)
+                                        .doubleValue();
+    }
+
+    /**************************************************************************
+     * Method that returns the sample standard deviation.
+     *************************************************************************/
+    public double stddev() {
+        return Math.sqrt(variance());
+    }
+
+    /**************************************************************************
+     * Method that writes the state as seven longs and the bins.
+     *************************************************************************/
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(limit);
+        out.writeLong(count);
+        out.writeLong(sum);
+        out.writeLong(squaresHigh);
+        out.writeLong(squaresLow);
+        out.writeLong(min);
+        out.writeLong(max);
+        if (histogram != null) {
+            for (long bin : histogram) {
+                out.writeLong(bin);
+            }
+        }
+    }
+
+    /**************************************************************************
+     * Method that reads an accumulator written by writeTo.
+     *************************************************************************/
+    public static ThresholdAccumulator readFrom(DataInput in) throws IOException {
+        long limit = in.readLong();
+        if (limit < 0)
+            throw new java.lang.IllegalArgumentException("negative limit");
+        ThresholdAccumulator that = new ThresholdAccumulator(limit);
+        that.count = in.readLong();
+        that.sum = in.readLong();
+        that.squaresHigh = in.readLong();
+        that.squaresLow = in.readLong();
+        that.min = in.readLong();
+        that.max = in.readLong();
+        if (that.histogram != null) {
+            for (int i = 0; i < HISTOGRAM_BINS; i++) {
+                that.histogram[i] = in.readLong();
+            }
+        }
+        return that;
+    }
+
+    /**************************************************************************
+     * Helper method that adds a 128-bit value to the sum of squares.
+     *************************************************************************/
+    private void addSquares(long high, long low) {
+        long total = squaresLow + low;
+        if (Long.compareUnsigned(total, low) < 0) {     // carry out of low
+            high++;
+        }
+        squaresLow = total;
+        squaresHigh += high;
+    }
+
+    public static void main(String[] args) {
+        // Test against a two-pass computation
+        StdOut.print("Test mean and stddev: ");
+        ThresholdAccumulator all = new ThresholdAccumulator();
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = StdRandom.uniform(1000000);
+            all.add(values[i]);
+        }
+        double mean = 0.0;
+        for (int v : values) {
+            mean += v;
+        }
+        mean /= values.length;
+        double squares = 0.0;
+        for (int v : values) {
+            squares += (v - mean) * (v - mean);
+        }
+        double stddev = Math.sqrt(squares / (values.length - 1));
+        if (Math.abs(all.mean() - mean) < 1e-6
+                && Math.abs(all.stddev() - stddev) < 1e-6) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test that merging halves gives bit-identical results
+        StdOut.print("Test merge: ");
+        ThresholdAccumulator left = new ThresholdAccumulator();
+        ThresholdAccumulator right = new ThresholdAccumulator();
+        for (int i = 0; i < values.length; i++) {
+            if (i % 3 == 0) {
+                left.add(values[i]);
+            } else {
+                right.add(values[i]);
+            }
+        }
+        right.merge(left);
+        if (right.count() == all.count() && right.mean() == all.mean()
+                && right.stddev() == all.stddev()
+                && right.min() == all.min() && right.max() == all.max()) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test the histogram
+        StdOut.print("Test histogram: ");
+        ThresholdAccumulator bins = new ThresholdAccumulator(999);
+        for (int v = 0; v < 1000; v++) {
+            bins.add(v);
+        }
+        ThresholdAccumulator more = new ThresholdAccumulator(999);
+        more.add(999);
+        bins.merge(more);
+        long[] histogram = bins.histogram();
+        boolean even = histogram[HISTOGRAM_BINS - 1] == 11;
+        for (int i = 0; i < HISTOGRAM_BINS - 1; i++) {
+            even &= histogram[i] == 10;
+        }
+        try {
+            bins.merge(all);
+            even = false;
+        } catch (IllegalArgumentException e) {
+            // limits differ, as expected
+        }
+        if (even) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test squares that carry past 64 bits
+        StdOut.print("Test 128-bit squares: ");
+        ThresholdAccumulator big = new ThresholdAccumulator();
+        big.add(3000000000L);
+        big.add(5000000000L);
+        big.add(4000000000L);
+        if (big.mean() == 4.0e9 && big.variance() == 1.0e18) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}
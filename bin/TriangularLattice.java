@@ -0,0 +1,69 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac TriangularLattice.java
+ *
+ * Defines the N-by-N triangular lattice, drawn as a square lattice with
+ * one added diagonal, so each site has six neighbors.
+ * Directions: 0 right, 1 down, 2 down-right, 3 left, 4 up, 5 up-left.
+ *---------------------------------------------------------------------------*/
+
+public class TriangularLattice implements Lattice {
+    private int width; // sites per row and per column
+
+    /**************************************************************************
+     * Class constructor method for an N-by-N lattice.
+     *************************************************************************/
+    public TriangularLattice(int N) {
+        if (N < 1)
+            throw new java.lang.IllegalArgumentException("index out of bounds");
+        width = N;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of sites.
+     *************************************************************************/
+    public long sites() {
+        return (long) width * width;
+    }
+
+    /**************************************************************************
+     * Method that returns the number of neighbor directions.
+     *************************************************************************/
+    public int directions() {
+        return 6;
+    }
+
+    /**************************************************************************
+     * Method that returns the neighbor of site in direction d, or -1.
+     *************************************************************************/
+    public long neighbor(long site, int d) {
+        long row = site / width;
+        long column = site - row * width;
+        boolean right = column != width - 1;
+        boolean down = row != width - 1;
+        switch (d) {
+            case 0:  return right ? site + 1 : -1;
+            case 1:  return down ? site + width : -1;
+            case 2:  return (right && down) ? site + width + 1 : -1;
+            case 3:  return (column != 0) ? site - 1 : -1;
+            case 4:  return (row != 0) ? site - width : -1;
+            default: return (row != 0 && column != 0) ? site - width - 1 : -1;
+        }
+    }
+
+    /**************************************************************************
+     * Method that says if a site is on the top boundary.
+     *************************************************************************/
+    public boolean isTop(long site) {
+        return site < width;
+    }
+
+    /**************************************************************************
+     * Method that says if a site is on the bottom boundary.
+     *************************************************************************/
+    public boolean isBottom(long site) {
+        return site >= sites() - width;
+    }
+}
@@ -0,0 +1,63 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac UnionFind.java
+ *
+ * Defines the union-find engine used by Percolation. Elements are
+ * addressed with longs so an engine may hold more than 2^31 sites.
+ * Engines are plugged into Percolation through its constructor, so
+ * alternative implementations can be compared on the same workload.
+ *
+ * Each component also carries a few flag bits (at least the two bits in
+ * FLAG_MASK). Flags are merged with OR on union, which lets Percolation
+ * track "touches top" and "touches bottom" per root without virtual sites.
+ *
+ * Engines are not thread-safe in general, but must allow operations on
+ * disjoint groups of elements from different threads at the same time,
+ * as long as no component spans two groups. Percolation relies on this
+ * to label horizontal strips of a grid in parallel.
+ *---------------------------------------------------------------------------*/
+
+public interface UnionFind {
+    int FLAG_MASK = 3; // flag bits every engine must keep per component
+
+    /**************************************************************************
+     * Method that returns the number of elements.
+     *************************************************************************/
+    long size();
+
+    /**************************************************************************
+     * Method that returns the root of the component containing p.
+     *************************************************************************/
+    long find(long p);
+
+    /**************************************************************************
+     * Method that merges the components containing p and q, and returns
+     * the root of the merged component.
+     *************************************************************************/
+    long union(long p, long q);
+
+    /**************************************************************************
+     * Method that says whether p and q are in the same component.
+     *************************************************************************/
+    boolean connected(long p, long q);
+
+    /**************************************************************************
+     * Method that returns the flags of the component containing p.
+     *************************************************************************/
+    int flags(long p);
+
+    /**************************************************************************
+     * Method that adds flags to the component containing p, and returns
+     * the flags the component has afterwards.
+     *************************************************************************/
+    int mark(long p, int flags);
+
+    /**************************************************************************
+     * Method that makes p a singleton again, with no flags. Only valid when
+     * every element of p's component is being reset as well, as when a
+     * Percolation is cleared for reuse.
+     *************************************************************************/
+    void reset(long p);
+}
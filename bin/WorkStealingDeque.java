@@ -0,0 +1,282 @@
+/*-----------------------------------------------------------------------------
+ * Written:       10/18/2026
+ * Last Updated:  10/18/2026
+ *
+ * Compilation:   javac WorkStealingDeque.java
+ * Execution:     java WorkStealingDeque
+ *
+ * Defines a concurrent deque for a work-stealing scheduler, after Chase
+ * and Lev, "Dynamic Circular Work-Stealing Deque" (SPAA 2005), with the
+ * memory orderings of Le et al., "Correct and Efficient Work-Stealing
+ * for Weak Memory Models" (PPoPP 2013).
+ *
+ * One owner thread adds and removes at the back, as a stack of its own
+ * tasks; any other thread steals from the front, taking the oldest task.
+ * Neither side takes a lock. The owner's addLast and removeLast are a
+ * few plain and release accesses, plus one compareAndSet only when it
+ * races thieves for the last item; stealFirst is one compareAndSet,
+ * retried when another thief wins.
+ *
+ * The items live in a circular array indexed by top and bottom, which
+ * only ever increase: the items are array[top] through array[bottom - 1]
+ * taken modulo the capacity. When the array fills, the owner copies the
+ * items into one twice the size and publishes it; the old array is never
+ * written again, so a thief still reading it sees the right item. The
+ * array never shrinks.
+ *
+ * Only removeLast clears the slots it empties: a thief cannot, since by
+ * the time its compareAndSet succeeds the owner may already have reused
+ * the slot. So up to capacity stolen items stay reachable until the
+ * owner overwrites them.
+ *
+ * Items may not be null, because null is what removeLast and stealFirst
+ * return when there is nothing to take.
+ *---------------------------------------------------------------------------*/
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WorkStealingDeque<Item> {
+    private static final int CAPACITY = 64;   // initial array length
+    private static final VarHandle TOP;
+    private static final VarHandle BOTTOM;
+    private static final VarHandle ITEMS =
+        MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TOP = lookup.findVarHandle(WorkStealingDeque.class, "top",
+                                       long.class);
+            BOTTOM = lookup.findVarHandle(WorkStealingDeque.class, "bottom",
+                                          long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long top;       // index of the front item, for thieves
+    private volatile long bottom;    // index after the back item, for owner
+    private volatile Object[] items; // circular array, length a power of 2
+
+    /**************************************************************************
+     * Method for default WorkStealingDeque construction. The thread that
+     * calls addLast and removeLast from then on is the owner.
+     *************************************************************************/
+    public WorkStealingDeque() {
+        items = new Object[CAPACITY];
+    }
+
+    /**************************************************************************
+     * Method that says if the WorkStealingDeque is empty. With other
+     * threads at work this is only a snapshot.
+     *************************************************************************/
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**************************************************************************
+     * Method that returns size. With other threads at work this is only a
+     * snapshot.
+     *************************************************************************/
+    public int size() {
+        long t = top;
+        long b = bottom;
+        return (int) Math.max(b - t, 0);
+    }
+
+    /**************************************************************************
+     * Method that adds an item to the back of the WorkStealingDeque. Owner
+     * only.
+     *
+     * The item is written before bottom is released, so a thief that sees
+     * the new bottom also sees the item.
+     *************************************************************************/
+    public void addLast(Item item) {
+        if (item == null) {
+            throw new java.lang.NullPointerException();
+        }
+        long b = (long) BOTTOM.getOpaque(this);
+        long t = (long) TOP.getAcquire(this);
+        Object[] a = items;
+        if (b - t > a.length - 1) {
+            a = grow(a, t, b);
+        }
+        ITEMS.setOpaque(a, (int) b & (a.length - 1), item);
+        BOTTOM.setRelease(this, b + 1);
+    }
+
+    /**************************************************************************
+     * Method that removes the item at the back of the WorkStealingDeque,
+     * or returns null if it is empty. Owner only.
+     *
+     * Returning null rather than throwing, since a thief may take the last
+     * item between an isEmpty check and the remove. Bottom is lowered
+     * before top is read, both volatile, so a thief racing for the same
+     * item sees the lowered bottom or loses the compareAndSet on top.
+     *************************************************************************/
+    @SuppressWarnings("unchecked")
+    public Item removeLast() {
+        long b = (long) BOTTOM.getOpaque(this) - 1;
+        Object[] a = items;
+        bottom = b;
+        long t = top;
+        if (t > b) {                 // was empty
+            BOTTOM.setOpaque(this, b + 1);
+            return null;
+        }
+        int slot = (int) b & (a.length - 1);
+        Item item = (Item) ITEMS.getOpaque(a, slot);
+        if (t < b) {                 // more than one item: no thief near
+            ITEMS.setOpaque(a, slot, null);
+            return item;
+        }
+        if (TOP.compareAndSet(this, t, t + 1)) {
+            ITEMS.setOpaque(a, slot, null);
+        } else {                     // a thief took the last item
+            item = null;
+        }
+        BOTTOM.setOpaque(this, b + 1);
+        return item;
+    }
+
+    /**************************************************************************
+     * Method that removes the item at the front of the WorkStealingDeque,
+     * or returns null if it is empty. Any thread may call it.
+     *
+     * Top is read before bottom, both volatile, and the item is only kept
+     * if the compareAndSet on top claims it; losing to another thief or
+     * to the owner retries.
+     *************************************************************************/
+    @SuppressWarnings("unchecked")
+    public Item stealFirst() {
+        while (true) {
+            long t = top;
+            long b = bottom;
+            if (t >= b) {
+                return null;
+            }
+            Object[] a = items;
+            Item item = (Item) ITEMS.getAcquire(a, (int) t & (a.length - 1));
+            if (TOP.compareAndSet(this, t, t + 1)) {
+                return item;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**************************************************************************
+     * Helper method that copies items top through bottom - 1 into an array
+     * twice the size and publishes it. Owner only.
+     *************************************************************************/
+    private Object[] grow(Object[] a, long t, long b) {
+        if (a.length == 1 << 30) {
+            throw new java.lang.IllegalStateException("deque full");
+        }
+        Object[] larger = new Object[2 * a.length];
+        for (long i = t; i < b; i++) {
+            larger[(int) i & (larger.length - 1)] =
+                ITEMS.getOpaque(a, (int) i & (a.length - 1));
+        }
+        items = larger;
+        return larger;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // Test the empty deque
+        StdOut.print("Test empty WorkStealingDeque: ");
+        WorkStealingDeque<Integer> empty = new WorkStealingDeque<Integer>();
+        if (empty.isEmpty() && empty.removeLast() == null
+                && empty.stealFirst() == null && empty.size() == 0) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test null items
+        StdOut.print("Test add null item: ");
+        try {
+            empty.addLast(null);
+            StdOut.println("FAILED");
+        } catch (java.lang.NullPointerException e) {
+            StdOut.println("passed: exception caught");
+        }
+
+        // Test one thread against java.util.ArrayDeque, across growth
+        StdOut.print("Test against ArrayDeque: ");
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<Integer>();
+        java.util.ArrayDeque<Integer> model = new java.util.ArrayDeque<Integer>();
+        boolean same = true;
+        for (int step = 0; step < 200000 && same; step++) {
+            int op = StdRandom.uniform(5);
+            if (op <= 2) {
+                deque.addLast(step);
+                model.addLast(step);
+            } else if (op == 3) {
+                same = java.util.Objects.equals(deque.removeLast(),
+                                                model.pollLast());
+            } else {
+                same = java.util.Objects.equals(deque.stealFirst(),
+                                                model.pollFirst());
+            }
+            same &= deque.size() == model.size();
+        }
+        if (same) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+
+        // Test an owner and thieves taking every item exactly once
+        StdOut.print("Test concurrent steals: ");
+        int items = 2000000;
+        int thieves = Math.max(Runtime.getRuntime().availableProcessors() - 1, 2);
+        WorkStealingDeque<Integer> shared = new WorkStealingDeque<Integer>();
+        AtomicInteger[] taken = new AtomicInteger[items];
+        for (int i = 0; i < items; i++) {
+            taken[i] = new AtomicInteger();
+        }
+        AtomicInteger total = new AtomicInteger();
+        Thread[] threads = new Thread[thieves];
+        for (int k = 0; k < thieves; k++) {
+            threads[k] = new Thread(() -> {
+                while (total.get() < items) {
+                    Integer item = shared.stealFirst();
+                    if (item != null) {
+                        taken[item].incrementAndGet();
+                        total.incrementAndGet();
+                    }
+                }
+            });
+            threads[k].start();
+        }
+        for (int i = 0; i < items; i++) {
+            shared.addLast(i);
+            if (i % 3 == 0) {
+                Integer item = shared.removeLast();
+                if (item != null) {
+                    taken[item].incrementAndGet();
+                    total.incrementAndGet();
+                }
+            }
+        }
+        Integer item;
+        while ((item = shared.removeLast()) != null) {
+            taken[item].incrementAndGet();
+            total.incrementAndGet();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        boolean once = total.get() == items && shared.isEmpty();
+        for (int i = 0; i < items; i++) {
+            once &= taken[i].get() == 1;
+        }
+        if (once) {
+            StdOut.println("passed");
+        } else {
+            StdOut.println("FAILED");
+        }
+    }
+}